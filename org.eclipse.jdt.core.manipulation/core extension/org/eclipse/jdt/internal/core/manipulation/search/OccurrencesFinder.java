@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -97,6 +97,11 @@ public class OccurrencesFinder extends ASTVisitor implements IOccurrencesFinder
 	private void performSearch() {
 		if (fResult == null) {
 			fResult= new ArrayList<>();
+			if (!fTargetIsStaticMethodImport) {
+				OccurrencesIndex index= OccurrencesIndex.getExistingIndex(fRoot);
+				if (index != null && index.addOccurrences(fTarget, fReadDescription, fWriteDescription, fResult))
+					return;
+			}
 			fWriteUsages= new HashSet<>();
 			fRoot.accept(this);
 		}
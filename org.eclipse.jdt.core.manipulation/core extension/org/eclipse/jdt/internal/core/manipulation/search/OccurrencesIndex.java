@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.core.manipulation.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jdt.core.dom.ASTVisitor;
+import org.eclipse.jdt.core.dom.Assignment;
+import org.eclipse.jdt.core.dom.ClassInstanceCreation;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.core.dom.Expression;
+import org.eclipse.jdt.core.dom.FieldAccess;
+import org.eclipse.jdt.core.dom.FieldDeclaration;
+import org.eclipse.jdt.core.dom.IBinding;
+import org.eclipse.jdt.core.dom.IMethodBinding;
+import org.eclipse.jdt.core.dom.ITypeBinding;
+import org.eclipse.jdt.core.dom.IVariableBinding;
+import org.eclipse.jdt.core.dom.Modifier;
+import org.eclipse.jdt.core.dom.Name;
+import org.eclipse.jdt.core.dom.NameQualifiedType;
+import org.eclipse.jdt.core.dom.ParameterizedType;
+import org.eclipse.jdt.core.dom.PostfixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression;
+import org.eclipse.jdt.core.dom.PrefixExpression.Operator;
+import org.eclipse.jdt.core.dom.QualifiedName;
+import org.eclipse.jdt.core.dom.SimpleName;
+import org.eclipse.jdt.core.dom.SimpleType;
+import org.eclipse.jdt.core.dom.SingleVariableDeclaration;
+import org.eclipse.jdt.core.dom.Type;
+import org.eclipse.jdt.core.dom.VariableDeclarationFragment;
+
+import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder.OccurrenceLocation;
+
+/**
+ * Index of the occurrences found by {@link OccurrencesFinder} in an AST, keyed by the binding
+ * key of the declaration of the referenced element.
+ * <p>
+ * The index is built with a single walk over the AST and attached to the AST root, so that
+ * subsequent searches for any element in the same AST are map lookups. Occurrences of static
+ * methods are not answered by the index, since the finder matches them by name in static imports.
+ * </p>
+ *
+ * @since 1.10
+ */
+public final class OccurrencesIndex {
+
+	private static final String INDEX_PROPERTY= OccurrencesIndex.class.getName();
+
+	/** Offset, length and flags of the occurrences of one element, in the order of the AST walk */
+	private static final class Positions {
+
+		private int[] fData= new int[3 * 4];
+		private int fSize= 0;
+
+		void add(int offset, int length, int flags) {
+			if (fSize + 3 > fData.length) {
+				int[] data= new int[fData.length * 2];
+				System.arraycopy(fData, 0, data, 0, fSize);
+				fData= data;
+			}
+			fData[fSize++]= offset;
+			fData[fSize++]= length;
+			fData[fSize++]= flags;
+		}
+	}
+
+	private static final class IndexBuilder extends ASTVisitor {
+
+		private final Map<String, Positions> fPositions= new HashMap<>();
+		private final Set<Name> fWriteUsages= new HashSet<>();
+		/** Keys of qualified names whose children are not occurrences of the same element */
+		private final List<String> fSuppressedKeys= new ArrayList<>();
+
+		IndexBuilder() {
+			super(true);
+		}
+
+		@Override
+		public boolean visit(QualifiedName node) {
+			IBinding binding= node.resolveBinding();
+			if (binding instanceof IVariableBinding && ((IVariableBinding) binding).isField()) {
+				SimpleName name= node.getName();
+				fSuppressedKeys.add(addUsage(name, name.resolveBinding()));
+			} else {
+				fSuppressedKeys.add(addUsage(node, binding));
+			}
+			return true;
+		}
+
+		@Override
+		public void endVisit(QualifiedName node) {
+			fSuppressedKeys.remove(fSuppressedKeys.size() - 1);
+		}
+
+		@Override
+		public boolean visit(SimpleName node) {
+			addUsage(node, node.resolveBinding());
+			return true;
+		}
+
+		@Override
+		public boolean visit(ClassInstanceCreation node) {
+			Type type= node.getType();
+			if (type instanceof ParameterizedType) {
+				type= ((ParameterizedType) type).getType();
+			}
+			if (type instanceof SimpleType) {
+				Name name= ((SimpleType) type).getName();
+				if (name instanceof QualifiedName)
+					name= ((QualifiedName) name).getName();
+				addUsage(name, node.resolveConstructorBinding());
+			} else if (type instanceof NameQualifiedType) {
+				addUsage(((NameQualifiedType) type).getName(), node.resolveConstructorBinding());
+			}
+			return true;
+		}
+
+		@Override
+		public boolean visit(Assignment node) {
+			addWrite(getSimpleName(node.getLeftHandSide()));
+			return true;
+		}
+
+		@Override
+		public boolean visit(SingleVariableDeclaration node) {
+			addWrite(node.getName());
+			return true;
+		}
+
+		@Override
+		public boolean visit(VariableDeclarationFragment node) {
+			if (node.getParent() instanceof FieldDeclaration || node.getInitializer() != null)
+				addWrite(node.getName());
+			return true;
+		}
+
+		@Override
+		public boolean visit(PrefixExpression node) {
+			PrefixExpression.Operator operator= node.getOperator();
+			if (operator == Operator.INCREMENT || operator == Operator.DECREMENT)
+				addWrite(getSimpleName(node.getOperand()));
+			return true;
+		}
+
+		@Override
+		public boolean visit(PostfixExpression node) {
+			addWrite(getSimpleName(node.getOperand()));
+			return true;
+		}
+
+		private void addWrite(Name node) {
+			if (node != null)
+				fWriteUsages.add(node);
+		}
+
+		/**
+		 * Records an occurrence of the element referenced by the given name.
+		 *
+		 * @param node the name
+		 * @param binding the binding referenced by the name, can be <code>null</code>
+		 * @return the key of the element if the occurrence was recorded, <code>null</code> otherwise
+		 */
+		private String addUsage(Name node, IBinding binding) {
+			if (binding == null)
+				return null;
+			IBinding declaration= getBindingDeclaration(binding);
+			String key= declaration.getKey();
+			if (key == null || fSuppressedKeys.contains(key))
+				return null;
+			int flags= 0;
+			if (declaration instanceof IVariableBinding)
+				flags= fWriteUsages.remove(node) ? IOccurrencesFinder.F_WRITE_OCCURRENCE : IOccurrencesFinder.F_READ_OCCURRENCE;
+			Positions positions= fPositions.get(key);
+			if (positions == null) {
+				positions= new Positions();
+				fPositions.put(key, positions);
+			}
+			positions.add(node.getStartPosition(), node.getLength(), flags);
+			return key;
+		}
+
+		private static SimpleName getSimpleName(Expression expression) {
+			if (expression instanceof SimpleName)
+				return ((SimpleName) expression);
+			else if (expression instanceof QualifiedName)
+				return (((QualifiedName) expression).getName());
+			else if (expression instanceof FieldAccess)
+				return ((FieldAccess) expression).getName();
+			return null;
+		}
+	}
+
+	private final int fModificationCount;
+
+	private final Map<String, Positions> fPositions;
+
+	private OccurrencesIndex(int modificationCount, Map<String, Positions> positions) {
+		fModificationCount= modificationCount;
+		fPositions= positions;
+	}
+
+	/**
+	 * Returns the index of the given AST, building it if the AST has no up-to-date index yet.
+	 *
+	 * @param root the AST root
+	 * @return the index
+	 */
+	public static OccurrencesIndex getIndex(CompilationUnit root) {
+		OccurrencesIndex index= getExistingIndex(root);
+		if (index != null)
+			return index;
+
+		int modificationCount= root.getAST().modificationCount();
+		IndexBuilder builder= new IndexBuilder();
+		root.accept(builder);
+		index= new OccurrencesIndex(modificationCount, builder.fPositions);
+		synchronized (root) {
+			if (root.getAST().modificationCount() == modificationCount)
+				root.setProperty(INDEX_PROPERTY, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Returns the index of the given AST if it has already been built.
+	 *
+	 * @param root the AST root
+	 * @return the index, or <code>null</code> if the AST has no up-to-date index
+	 */
+	public static OccurrencesIndex getExistingIndex(CompilationUnit root) {
+		synchronized (root) {
+			OccurrencesIndex index= (OccurrencesIndex) root.getProperty(INDEX_PROPERTY);
+			if (index != null && index.fModificationCount == root.getAST().modificationCount())
+				return index;
+			return null;
+		}
+	}
+
+	/**
+	 * Adds the occurrences of the given element to a result list, if this index can answer
+	 * searches for the element.
+	 *
+	 * @param target the binding declaration of the element
+	 * @param readDescription the description of read and other occurrences
+	 * @param writeDescription the description of write occurrences
+	 * @param result the list to add the occurrences to
+	 * @return <code>true</code> if the occurrences were added, <code>false</code> if the element
+	 *         has to be searched by walking the AST
+	 */
+	public boolean addOccurrences(IBinding target, String readDescription, String writeDescription, List<OccurrenceLocation> result) {
+		if (target instanceof IMethodBinding && Modifier.isStatic(target.getModifiers()))
+			return false;
+		String key= target.getKey();
+		if (key == null)
+			return false;
+		Positions positions= fPositions.get(key);
+		if (positions == null)
+			return true;
+		int[] data= positions.fData;
+		for (int i= 0; i < positions.fSize; i+= 3) {
+			int flags= data[i + 2];
+			String description= flags == IOccurrencesFinder.F_WRITE_OCCURRENCE ? writeDescription : readDescription;
+			result.add(new OccurrenceLocation(data[i], data[i + 1], flags, description));
+		}
+		return true;
+	}
+
+	private static IBinding getBindingDeclaration(IBinding binding) {
+		switch (binding.getKind()) {
+			case IBinding.TYPE :
+				return ((ITypeBinding)binding).getTypeDeclaration();
+			case IBinding.METHOD :
+				return ((IMethodBinding)binding).getMethodDeclaration();
+			case IBinding.VARIABLE :
+				return ((IVariableBinding)binding).getVariableDeclaration();
+			default:
+				return binding;
+		}
+	}
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.dom;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.runtime.Assert;
+
+import org.eclipse.jdt.core.ToolFactory;
+import org.eclipse.jdt.core.compiler.IScanner;
+
+/**
+ * A pool of compiler scanners. Scanners are confined to the thread that acquired them: each
+ * thread has its own pool, so no synchronization is needed and scanners are never shared between
+ * threads. A scanner obtained by one of the <code>acquire</code> methods must be handed back with
+ * {@link #release(IScanner)} by the same thread once scanning is done, typically in a
+ * <code>finally</code> block.
+ * <p>
+ * Reusing scanners avoids allocating the scanner buffers (e.g. the line end table) for every
+ * compilation unit processed by bulk operations.
+ * </p>
+ *
+ * @since 1.10
+ */
+public final class ScannerPool {
+
+	private static final int MAX_POOLED_SCANNERS= 4;
+
+	private static final char[] NO_SOURCE= new char[0];
+
+	private static final class PooledScanner {
+
+		private final String fKey;
+		private final IScanner fScanner;
+		private boolean fInUse;
+
+		PooledScanner(String key, IScanner scanner) {
+			fKey= key;
+			fScanner= scanner;
+		}
+	}
+
+	private static final ThreadLocal<List<PooledScanner>> fgPool= new ThreadLocal<List<PooledScanner>>() {
+		@Override
+		protected List<PooledScanner> initialValue() {
+			return new ArrayList<>(MAX_POOLED_SCANNERS);
+		}
+	};
+
+	private ScannerPool() {
+		// no instances
+	}
+
+	/**
+	 * Acquires a scanner, see {@link ToolFactory#createScanner(boolean, boolean, boolean, boolean)}.
+	 *
+	 * @param tokenizeComments if set to <code>false</code>, comments will be silently consumed
+	 * @param tokenizeWhiteSpace if set to <code>false</code>, white spaces will be silently consumed
+	 * @param assertMode if set to <code>false</code>, occurrences of 'assert' will be reported as
+	 *            identifiers
+	 * @param recordLineSeparator if set to <code>true</code>, the scanner will record positions of
+	 *            encountered line separator ends
+	 * @return a scanner without source, to be released with {@link #release(IScanner)}
+	 */
+	public static IScanner acquire(boolean tokenizeComments, boolean tokenizeWhiteSpace, boolean assertMode, boolean recordLineSeparator) {
+		return acquire(tokenizeComments, tokenizeWhiteSpace, assertMode, recordLineSeparator, null, null);
+	}
+
+	/**
+	 * Acquires a scanner, see
+	 * {@link ToolFactory#createScanner(boolean, boolean, boolean, String, String)}.
+	 *
+	 * @param tokenizeComments if set to <code>false</code>, comments will be silently consumed
+	 * @param tokenizeWhiteSpace if set to <code>false</code>, white spaces will be silently consumed
+	 * @param recordLineSeparator if set to <code>true</code>, the scanner will record positions of
+	 *            encountered line separator ends
+	 * @param sourceLevel the source level, see <code>JavaCore.COMPILER_SOURCE</code>
+	 * @param complianceLevel the compliance level, see <code>JavaCore.COMPILER_COMPLIANCE</code>
+	 * @return a scanner without source, to be released with {@link #release(IScanner)}
+	 */
+	public static IScanner acquire(boolean tokenizeComments, boolean tokenizeWhiteSpace, boolean recordLineSeparator, String sourceLevel, String complianceLevel) {
+		Assert.isNotNull(sourceLevel);
+		Assert.isNotNull(complianceLevel);
+		return acquire(tokenizeComments, tokenizeWhiteSpace, false, recordLineSeparator, sourceLevel, complianceLevel);
+	}
+
+	private static IScanner acquire(boolean tokenizeComments, boolean tokenizeWhiteSpace, boolean assertMode, boolean recordLineSeparator, String sourceLevel, String complianceLevel) {
+		StringBuilder buf= new StringBuilder();
+		buf.append(tokenizeComments ? 'c' : '-');
+		buf.append(tokenizeWhiteSpace ? 'w' : '-');
+		buf.append(assertMode ? 'a' : '-');
+		buf.append(recordLineSeparator ? 'l' : '-');
+		if (sourceLevel != null)
+			buf.append(sourceLevel).append('/').append(complianceLevel);
+		String key= buf.toString();
+
+		List<PooledScanner> pool= fgPool.get();
+		for (int i= 0; i < pool.size(); i++) {
+			PooledScanner pooled= pool.get(i);
+			if (!pooled.fInUse && pooled.fKey.equals(key)) {
+				pooled.fInUse= true;
+				return pooled.fScanner;
+			}
+		}
+
+		IScanner scanner;
+		if (sourceLevel != null)
+			scanner= ToolFactory.createScanner(tokenizeComments, tokenizeWhiteSpace, recordLineSeparator, sourceLevel, complianceLevel);
+		else
+			scanner= ToolFactory.createScanner(tokenizeComments, tokenizeWhiteSpace, assertMode, recordLineSeparator);
+
+		if (pool.size() < MAX_POOLED_SCANNERS) {
+			PooledScanner pooled= new PooledScanner(key, scanner);
+			pooled.fInUse= true;
+			pool.add(pooled);
+		}
+		return scanner;
+	}
+
+	/**
+	 * Releases a scanner acquired by the current thread. The scanner's source is cleared, its
+	 * positions are reset, and the scanner must not be used afterwards.
+	 *
+	 * @param scanner the scanner to release
+	 */
+	public static void release(IScanner scanner) {
+		scanner.setSource(NO_SOURCE);
+		scanner.resetTo(0, -1);
+		List<PooledScanner> pool= fgPool.get();
+		for (int i= 0; i < pool.size(); i++) {
+			PooledScanner pooled= pool.get(i);
+			if (pooled.fScanner == scanner) {
+				pooled.fInUse= false;
+				return;
+			}
+		}
+	}
+}
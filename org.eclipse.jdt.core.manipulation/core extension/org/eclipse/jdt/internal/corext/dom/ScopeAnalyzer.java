@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,8 +12,10 @@ package org.eclipse.jdt.internal.corext.dom;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
@@ -141,6 +143,74 @@ public class ScopeAnalyzer {
 
 	}
 
+	/**
+	 * Collects all bindings reported by a walk, so that the walk can be replayed from the
+	 * {@link DeclarationsCache}.
+	 */
+	private static class RecordingRequestor implements IBindingRequestor {
+
+		private final List<IBinding> fRecorded= new ArrayList<>();
+
+		@Override
+		public boolean acceptBinding(IBinding binding) {
+			if (binding != null)
+				fRecorded.add(binding);
+			return false;
+		}
+
+		public IBinding[] getRecorded() {
+			return fRecorded.toArray(new IBinding[fRecorded.size()]);
+		}
+	}
+
+	private static final class DeclarationsKey {
+
+		private final ITypeBinding fBinding;
+		private final int fKinds;
+		private final boolean fInheritedOnly;
+
+		DeclarationsKey(ITypeBinding binding, int kinds, boolean inheritedOnly) {
+			fBinding= binding;
+			fKinds= kinds;
+			fInheritedOnly= inheritedOnly;
+		}
+
+		@Override
+		public int hashCode() {
+			return fBinding.hashCode() ^ (fKinds << 1) ^ (fInheritedOnly ? 1 : 0);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof DeclarationsKey))
+				return false;
+			DeclarationsKey other= (DeclarationsKey) obj;
+			return fBinding == other.fBinding && fKinds == other.fKinds && fInheritedOnly == other.fInheritedOnly;
+		}
+	}
+
+	/**
+	 * The declarations visible in types and their hierarchies, as reported by
+	 * {@link ScopeAnalyzer#addTypeDeclarations(ITypeBinding, int, IBindingRequestor)} and
+	 * {@link ScopeAnalyzer#addInherited(ITypeBinding, int, IBindingRequestor)}. The cache is stored
+	 * as a property of the compilation unit, so it is shared by all scope analyzers on the same
+	 * AST and released together with the AST. It is discarded when the AST is modified.
+	 */
+	private static final class DeclarationsCache {
+
+		private final int fModificationCount;
+		private final Map<DeclarationsKey, IBinding[]> fDeclarations= new HashMap<>();
+
+		DeclarationsCache(int modificationCount) {
+			fModificationCount= modificationCount;
+		}
+	}
+
+	private static final String DECLARATIONS_CACHE_PROPERTY= ScopeAnalyzer.class.getName() + ".declarationsCache"; //$NON-NLS-1$
+
+	/** The flags that influence the walk over a type and its hierarchy */
+	private static final int KIND_FLAGS= METHODS | VARIABLES | TYPES;
+
 	private final HashSet<ITypeBinding> fTypesVisited;
 
 	private final CompilationUnit fRoot;
@@ -313,6 +383,53 @@ public class ScopeAnalyzer {
 		return false;
 	}
 
+	private DeclarationsCache getDeclarationsCache() {
+		int modificationCount= fRoot.getAST().modificationCount();
+		synchronized (fRoot) {
+			DeclarationsCache cache= (DeclarationsCache) fRoot.getProperty(DECLARATIONS_CACHE_PROPERTY);
+			if (cache == null || cache.fModificationCount != modificationCount) {
+				cache= new DeclarationsCache(modificationCount);
+				fRoot.setProperty(DECLARATIONS_CACHE_PROPERTY, cache);
+			}
+			return cache;
+		}
+	}
+
+	/**
+	 * Reports the elements available in a type to a requestor that collects all results. The
+	 * result of the walk over the type and its hierarchy is cached per AST.
+	 *
+	 * @param binding The type binding
+	 * @param inheritedOnly if <code>true</code>, only the type and its hierarchy are walked (see
+	 *            {@link #addInherited(ITypeBinding, int, IBindingRequestor)}), otherwise also the
+	 *            outer scopes (see {@link #addTypeDeclarations(ITypeBinding, int, IBindingRequestor)})
+	 * @param flags Flags defining the elements to report
+	 * @param requestor the requestor to which all results are reported
+	 */
+	private void addCachedDeclarations(ITypeBinding binding, boolean inheritedOnly, int flags, DefaultBindingRequestor requestor) {
+		DeclarationsCache cache= getDeclarationsCache();
+		DeclarationsKey key= new DeclarationsKey(binding, flags & KIND_FLAGS, inheritedOnly);
+		IBinding[] declarations;
+		synchronized (cache) {
+			declarations= cache.fDeclarations.get(key);
+		}
+		if (declarations == null) {
+			RecordingRequestor recorder= new RecordingRequestor();
+			if (inheritedOnly) {
+				addInherited(binding, flags, recorder);
+			} else {
+				addTypeDeclarations(binding, flags, recorder);
+			}
+			declarations= recorder.getRecorded();
+			synchronized (cache) {
+				cache.fDeclarations.put(key, declarations);
+			}
+		}
+		for (int i= 0; i < declarations.length; i++) {
+			requestor.acceptBinding(declarations[i]);
+		}
+	}
+
 	private static ITypeBinding getBinding(Expression node) {
 		if (node != null) {
 			return node.resolveTypeBinding();
@@ -385,9 +502,9 @@ public class ScopeAnalyzer {
 				DefaultBindingRequestor requestor= new DefaultBindingRequestor(parentTypeBinding, flags);
 				if (binding == null) {
 					addLocalDeclarations(selector, flags, requestor);
-					addTypeDeclarations(parentTypeBinding, flags, requestor);
+					addCachedDeclarations(parentTypeBinding, false, flags, requestor);
 				} else {
-					addInherited(binding, flags, requestor);
+					addCachedDeclarations(binding, true, flags, requestor);
 				}
 
 				List<IBinding> result= requestor.getResult();
@@ -531,7 +648,7 @@ public class ScopeAnalyzer {
 			DefaultBindingRequestor requestor= new DefaultBindingRequestor(binding, flags);
 			addLocalDeclarations(node, offset, flags, requestor);
 			if (binding != null) {
-				addTypeDeclarations(binding, flags, requestor);
+				addCachedDeclarations(binding, false, flags, requestor);
 			}
 			List<IBinding> result= requestor.getResult();
 			return result.toArray(new IBinding[result.size()]);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,6 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types;
 
-import java.util.Map;
-
 import org.eclipse.core.runtime.Assert;
 
 import org.eclipse.jdt.core.IType;
@@ -22,9 +20,20 @@ public abstract class HierarchyType extends TType {
 	private HierarchyType fSuperclass;
 	private HierarchyType[] fInterfaces;
 	private IType fJavaElementType;
+	private final int fId;
 
 	protected HierarchyType(TypeEnvironment environment) {
 		super(environment);
+		fId= environment.nextHierarchyTypeId();
+	}
+
+	/**
+	 * Returns the id of this type, which is unique among the hierarchy types of its environment.
+	 *
+	 * @return the id of this type
+	 */
+	final int getId() {
+		return fId;
 	}
 
 	protected void initialize(ITypeBinding binding, IType javaElementType) {
@@ -59,14 +68,12 @@ public abstract class HierarchyType extends TType {
 
 	public boolean isSubType(HierarchyType other) {
 		if (getEnvironment() == other.getEnvironment()) {
-			Map<TypeTuple, Boolean> cache= getEnvironment().getSubTypeCache();
-			TypeTuple key= new TypeTuple(this, other);
-			Boolean value= cache.get(key);
+			TypeEnvironment environment= getEnvironment();
+			Boolean value= environment.getCachedIsSubType(this, other);
 			if (value != null)
 				return value.booleanValue();
 			boolean isSub= doIsSubType(other);
-			value= Boolean.valueOf(isSub);
-			cache.put(key, value);
+			environment.cacheIsSubType(this, other, isSub);
 			return isSub;
 		}
 		return doIsSubType(other);
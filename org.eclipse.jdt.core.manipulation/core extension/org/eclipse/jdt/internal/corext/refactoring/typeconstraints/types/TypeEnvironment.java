@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,7 +13,6 @@ package org.eclipse.jdt.internal.corext.refactoring.typeconstraints.types;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -114,14 +113,35 @@ public class TypeEnvironment {
 	private Map<TType, SuperWildcardType>    fSuperWildcardTypes= new HashMap<>();
 	private UnboundWildcardType fUnboundWildcardType= null;
 
-	private static final int MAX_ENTRIES= 1024;
-	private Map<TypeTuple, Boolean> fSubTypeCache= new LinkedHashMap<TypeTuple, Boolean>(50, 0.75f, true) {
-		private static final long serialVersionUID= 1L;
-		@Override
-		protected boolean removeEldestEntry(Map.Entry<TypeTuple, Boolean> eldest) {
-			return size() > MAX_ENTRIES;
-		}
-	};
+	/**
+	 * Lower bound for the size of the subtype cache. The cache grows with the number of hierarchy
+	 * types created by this environment, see {@link #SUBTYPE_CACHE_ENTRIES_PER_TYPE}.
+	 */
+	private static final int MIN_SUBTYPE_CACHE_ENTRIES= 1024;
+	private static final int SUBTYPE_CACHE_ENTRIES_PER_TYPE= 16;
+	private static final int MAX_SUBTYPE_CACHE_ENTRIES= 1 << 18;
+
+	/**
+	 * Number of hierarchy types created so far; used to assign dense ids to hierarchy types.
+	 * Incremented while holding the lock on this environment, read without it when sizing the
+	 * subtype cache.
+	 */
+	private volatile int fHierarchyTypeCount= 0;
+
+	private static final byte SUBTYPE_CACHE_EMPTY= 0;
+	private static final byte SUBTYPE_CACHE_FALSE= 1;
+	private static final byte SUBTYPE_CACHE_TRUE= 2;
+
+	/**
+	 * Cache of subtype checks between hierarchy types, keyed by the ids of the two types, see
+	 * {@link #getSubTypeCacheKey(HierarchyType, HierarchyType)}. The cache is direct-mapped: every
+	 * key has one slot, and a new entry replaces the entry that occupied its slot.
+	 * <code>fSubTypeCacheValues</code> holds the result of the check in the slot, or
+	 * {@link #SUBTYPE_CACHE_EMPTY}. Accesses must be synchronized on <code>fSubTypeCacheLock</code>.
+	 */
+	private final Object fSubTypeCacheLock= new Object();
+	private long[] fSubTypeCacheKeys= new long[MIN_SUBTYPE_CACHE_ENTRIES];
+	private byte[] fSubTypeCacheValues= new byte[MIN_SUBTYPE_CACHE_ENTRIES];
 
 	/**
 	 * Map from TType to its known subtypes, or <code>null</code> iff subtype
@@ -180,11 +200,69 @@ public class TypeEnvironment {
 		fRemoveCapures= removeCapures;
 	}
 
-	Map<TypeTuple, Boolean> getSubTypeCache() {
-		return fSubTypeCache;
+	synchronized int nextHierarchyTypeId() {
+		return fHierarchyTypeCount++;
+	}
+
+	private int getSubTypeCacheLimit() {
+		int limit= fHierarchyTypeCount * SUBTYPE_CACHE_ENTRIES_PER_TYPE;
+		// the bounds are powers of two, so the slots can be computed by masking
+		return Integer.highestOneBit(Math.min(Math.max(limit, MIN_SUBTYPE_CACHE_ENTRIES), MAX_SUBTYPE_CACHE_ENTRIES));
+	}
+
+	private static long getSubTypeCacheKey(HierarchyType type, HierarchyType other) {
+		return ((long) type.getId() << 32) | (other.getId() & 0xFFFFFFFFL);
+	}
+
+	private static int getSubTypeCacheSlot(long key, int size) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & (size - 1);
 	}
 
-	public TType create(ITypeBinding binding) {
+	/**
+	 * Returns the cached result of a subtype check.
+	 *
+	 * @param type the potential subtype
+	 * @param other the potential supertype
+	 * @return the cached result, or <code>null</code> if the check has not been cached
+	 */
+	Boolean getCachedIsSubType(HierarchyType type, HierarchyType other) {
+		long key= getSubTypeCacheKey(type, other);
+		synchronized (fSubTypeCacheLock) {
+			int slot= getSubTypeCacheSlot(key, fSubTypeCacheKeys.length);
+			byte value= fSubTypeCacheValues[slot];
+			if (value == SUBTYPE_CACHE_EMPTY || fSubTypeCacheKeys[slot] != key)
+				return null;
+			return Boolean.valueOf(value == SUBTYPE_CACHE_TRUE);
+		}
+	}
+
+	void cacheIsSubType(HierarchyType type, HierarchyType other, boolean isSubType) {
+		long key= getSubTypeCacheKey(type, other);
+		synchronized (fSubTypeCacheLock) {
+			int limit= getSubTypeCacheLimit();
+			if (limit > fSubTypeCacheKeys.length) {
+				// grow with the number of hierarchy types, the cached results are dropped
+				fSubTypeCacheKeys= new long[limit];
+				fSubTypeCacheValues= new byte[limit];
+			}
+			int slot= getSubTypeCacheSlot(key, fSubTypeCacheKeys.length);
+			fSubTypeCacheKeys[slot]= key;
+			fSubTypeCacheValues[slot]= isSubType ? SUBTYPE_CACHE_TRUE : SUBTYPE_CACHE_FALSE;
+		}
+	}
+
+	/**
+	 * Returns the TType for the given binding, creating it if necessary.
+	 * <p>
+	 * Types are interned: creating a type for the same binding twice returns the same instance.
+	 * Creating types is synchronized. This does not make the environment safe to use from several
+	 * threads: TTypes initialize some of their state lazily without synchronization.
+	 * </p>
+	 *
+	 * @param binding the type binding
+	 * @return the TType for the binding
+	 */
+	public synchronized TType create(ITypeBinding binding) {
 		if (binding.isPrimitive()) {
 			return createPrimitiveType(binding);
 		} else if (binding.isArray()) {
@@ -217,7 +295,7 @@ public class TypeEnvironment {
 		return createStandardType(binding);
 	}
 
-	public TType[] create(ITypeBinding[] bindings) {
+	public synchronized TType[] create(ITypeBinding[] bindings) {
 		TType[] result= new TType[bindings.length];
 		for (int i= 0; i < bindings.length; i++) {
 			result[i]= create(bindings[i]);
@@ -235,11 +313,11 @@ public class TypeEnvironment {
 	 * 
 	 * @see #initializeJavaLangObject(IJavaProject)
 	 */
-	public TType getJavaLangObject() {
+	public synchronized TType getJavaLangObject() {
 		return OBJECT_TYPE;
 	}
 
-	public void initializeJavaLangObject(IJavaProject project) {
+	public synchronized void initializeJavaLangObject(IJavaProject project) {
 		if (OBJECT_TYPE != null)
 			return;
 		
@@ -247,7 +325,7 @@ public class TypeEnvironment {
 		Assert.isTrue(objectType.isJavaLangObject());
 	}
 	
-	void initializeJavaLangObject(ITypeBinding object) {
+	synchronized void initializeJavaLangObject(ITypeBinding object) {
 		if (OBJECT_TYPE != null)
 			return;
 
@@ -264,7 +342,7 @@ public class TypeEnvironment {
 		return null;
 	}
 
-	StandardType createBoxed(PrimitiveType type, IJavaProject focus) {
+	synchronized StandardType createBoxed(PrimitiveType type, IJavaProject focus) {
 		String fullyQualifiedName= BOXED_PRIMITIVE_NAMES[type.getId()];
 		return createStandardType(fullyQualifiedName, focus);
 	}
@@ -285,8 +363,14 @@ public class TypeEnvironment {
 		return null;
 	}
 
-	Map<TType, ArrayList<TType>> getSubTypes() {
-		return fSubTypes;
+	/**
+	 * Returns the known subtypes of the types of this environment.
+	 *
+	 * @return an unmodifiable view of the map from TType to its known subtypes, or
+	 *         <code>null</code> iff subtype information was not requested in the constructor
+	 */
+	synchronized Map<TType, ArrayList<TType>> getSubTypes() {
+		return fSubTypes == null ? null : Collections.unmodifiableMap(fSubTypes);
 	}
 
 	private void cacheSubType(TType supertype, TType result) {
@@ -336,7 +420,7 @@ public class TypeEnvironment {
 		return result;
 	}
 
-	public ArrayType createArrayType(TType elementType, int dimensions) {
+	public synchronized ArrayType createArrayType(TType elementType, int dimensions) {
 		Assert.isTrue(! elementType.isArrayType());
 		Assert.isTrue(! elementType.isAnonymous());
 		Assert.isTrue(dimensions > 0);
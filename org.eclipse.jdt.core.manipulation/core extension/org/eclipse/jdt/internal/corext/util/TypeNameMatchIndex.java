@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
+
+/**
+ * An index from simple type names to the types visible in a project, used by bulk operations
+ * such as organizing the imports of many compilation units. Instead of issuing one type name
+ * search per compilation unit, all type names of a project scope are collected once and the
+ * compilation units are resolved against that index.
+ * <p>
+ * An index is created by the bulk operation that uses it and must be {@link #dispose() disposed}
+ * when the operation ends, typically in a <code>finally</code> block. The collected type names
+ * are dropped when Java element deltas add or remove types.
+ * </p>
+ */
+public final class TypeNameMatchIndex {
+
+	private static final int CLASSPATH_CHANGED= IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED;
+
+	private final IElementChangedListener fDeltaListener= new IElementChangedListener() {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			if (affectsTypeNames(event.getDelta())) {
+				synchronized (fTypesByScope) {
+					fTypesByScope.clear();
+				}
+			}
+		}
+	};
+
+	/** The types by simple name, keyed by project name and test code visibility */
+	private final Map<String, Map<String, List<TypeNameMatch>>> fTypesByScope= new HashMap<>();
+
+	private boolean fDisposed= false;
+
+	/**
+	 * Creates an index. The index must be disposed with {@link #dispose()}.
+	 */
+	public TypeNameMatchIndex() {
+		JavaCore.addElementChangedListener(fDeltaListener, ElementChangedEvent.POST_CHANGE);
+	}
+
+	/**
+	 * Releases the collected type names and stops listening to Java element deltas.
+	 */
+	public void dispose() {
+		synchronized (fTypesByScope) {
+			if (fDisposed)
+				return;
+			fDisposed= true;
+			fTypesByScope.clear();
+		}
+		JavaCore.removeElementChangedListener(fDeltaListener);
+	}
+
+	/**
+	 * Returns the types with the given simple name that are visible in the given project. The
+	 * type names of the project are collected on the first request.
+	 *
+	 * @param project the project
+	 * @param excludeTestCode whether types in test source folders and test dependencies are excluded
+	 * @param simpleName the simple type name
+	 * @param monitor the progress monitor, can be <code>null</code>
+	 * @return the matching types, never <code>null</code>
+	 * @throws JavaModelException if the search fails
+	 */
+	public List<TypeNameMatch> getTypes(IJavaProject project, boolean excludeTestCode, String simpleName, IProgressMonitor monitor) throws JavaModelException {
+		List<TypeNameMatch> matches= getTypesBySimpleName(project, excludeTestCode, monitor).get(simpleName);
+		return matches != null ? Collections.unmodifiableList(matches) : Collections.<TypeNameMatch> emptyList();
+	}
+
+	private Map<String, List<TypeNameMatch>> getTypesBySimpleName(IJavaProject project, boolean excludeTestCode, IProgressMonitor monitor) throws JavaModelException {
+		String key= project.getElementName() + '/' + excludeTestCode;
+		synchronized (fTypesByScope) {
+			Map<String, List<TypeNameMatch>> types= fTypesByScope.get(key);
+			if (types != null)
+				return types;
+		}
+
+		final Map<String, List<TypeNameMatch>> types= new HashMap<>();
+		IJavaSearchScope scope= SearchEngine.createJavaSearchScope(excludeTestCode, new IJavaElement[] { project }, true);
+		TypeNameMatchRequestor requestor= new TypeNameMatchRequestor() {
+			@Override
+			public void acceptTypeNameMatch(TypeNameMatch match) {
+				String simpleName= match.getSimpleTypeName();
+				List<TypeNameMatch> matches= types.get(simpleName);
+				if (matches == null) {
+					matches= new ArrayList<>(1);
+					types.put(simpleName, matches);
+				}
+				matches.add(match);
+			}
+		};
+		new SearchEngine().searchAllTypeNames(null, SearchPattern.R_EXACT_MATCH, null, SearchPattern.R_PREFIX_MATCH, IJavaSearchConstants.TYPE, scope, requestor,
+				IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+
+		synchronized (fTypesByScope) {
+			if (!fDisposed)
+				fTypesByScope.put(key, types);
+		}
+		return types;
+	}
+
+	/**
+	 * Returns whether the given delta may add, remove or change types, or change the set of types
+	 * visible to a project.
+	 *
+	 * @param delta the Java element delta
+	 * @return <code>true</code> if type names collected before the delta may be outdated
+	 */
+	public static boolean affectsTypeNames(IJavaElementDelta delta) {
+		int kind= delta.getKind();
+		int flags= delta.getFlags();
+		switch (delta.getElement().getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+			case IJavaElement.JAVA_PROJECT:
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (kind != IJavaElementDelta.CHANGED || (flags & CLASSPATH_CHANGED) != 0 || (flags & IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED) != 0)
+					return true;
+				break;
+			case IJavaElement.COMPILATION_UNIT:
+				if (kind != IJavaElementDelta.CHANGED)
+					return true;
+				if ((flags & IJavaElementDelta.F_CONTENT) != 0 && (flags & IJavaElementDelta.F_FINE_GRAINED) == 0)
+					return true;
+				break;
+			case IJavaElement.CLASS_FILE:
+			case IJavaElement.TYPE:
+				if (kind != IJavaElementDelta.CHANGED || (flags & IJavaElementDelta.F_MODIFIERS) != 0)
+					return true;
+				break;
+			default:
+				return false;
+		}
+		IJavaElementDelta[] children= delta.getAffectedChildren();
+		for (int i= 0; i < children.length; i++) {
+			if (affectsTypeNames(children[i]))
+				return true;
+		}
+		return false;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,8 @@
 package org.eclipse.jdt.text.tests;
 
 import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jdt.text.tests.performance.DisplayHelper;
 import org.eclipse.jdt.text.tests.performance.EditorTestHelper;
@@ -54,6 +56,7 @@ import org.eclipse.jdt.ui.PreferenceConstants;
 
 import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
+import org.eclipse.jdt.internal.ui.viewsupport.IConcurrentSelectionListenerWithAST;
 import org.eclipse.jdt.internal.ui.viewsupport.ISelectionListenerWithAST;
 import org.eclipse.jdt.internal.ui.viewsupport.SelectionListenerWithASTManager;
 
@@ -361,6 +364,53 @@ public class MarkOccurrenceTest extends TestCase {
 		assertOccurrencesInWidget();
 	}
 
+	public void testConcurrentSelectionListener() throws Exception {
+		final CountDownLatch laterListenerInformed= new CountDownLatch(1);
+		final boolean[] informedConcurrently= new boolean[1];
+		ISelectionListenerWithAST concurrentListener= new IConcurrentSelectionListenerWithAST() {
+			@Override
+			public void selectionChanged(IEditorPart part, ITextSelection selection, CompilationUnit astRoot) {
+				try {
+					// only returns true if the listener registered after this one runs in the meantime
+					boolean informed= laterListenerInformed.await(20, TimeUnit.SECONDS);
+					synchronized (MarkOccurrenceTest.this) {
+						informedConcurrently[0]= informed;
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		ISelectionListenerWithAST laterListener= new ISelectionListenerWithAST() {
+			@Override
+			public void selectionChanged(IEditorPart part, ITextSelection selection, CompilationUnit astRoot) {
+				laterListenerInformed.countDown();
+			}
+		};
+		SelectionListenerWithASTManager.getDefault().addListener(fEditor, concurrentListener);
+		SelectionListenerWithASTManager.getDefault().addListener(fEditor, laterListener);
+		try {
+			fMatch= fFindReplaceDocumentAdapter.find(0, "TestResult", true, true, true, false);
+			assertNotNull(fMatch);
+			fEditor.selectAndReveal(fMatch.getOffset(), fMatch.getLength());
+
+			DisplayHelper helper= new DisplayHelper() {
+				@Override
+				protected boolean condition() {
+					synchronized (MarkOccurrenceTest.this) {
+						return informedConcurrently[0];
+					}
+				}
+			};
+			assertTrue(helper.waitForCondition(EditorTestHelper.getActiveDisplay(), 30000));
+			// the listeners registered before the concurrent listener are informed in order
+			assertOccurrences(8);
+		} finally {
+			SelectionListenerWithASTManager.getDefault().removeListener(fEditor, laterListener);
+			SelectionListenerWithASTManager.getDefault().removeListener(fEditor, concurrentListener);
+		}
+	}
+
 	private void assertOccurrencesInWidget() {
 		EditorTestHelper.runEventQueue(500);
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2016 IBM Corporation and others.
+ * Copyright (c) 2011, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,6 +31,8 @@ import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
 import org.eclipse.jdt.internal.ui.search.ExceptionOccurrencesFinder;
 import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder;
 import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder.OccurrenceLocation;
+import org.eclipse.jdt.internal.core.manipulation.search.OccurrencesFinder;
+import org.eclipse.jdt.internal.core.manipulation.search.OccurrencesIndex;
 import org.eclipse.jdt.internal.ui.search.MethodExitsFinder;
 
 import junit.framework.Test;
@@ -103,6 +105,57 @@ public class MarkOccurrenceTest17 extends TestCase {
 		}
 	}
 
+	/**
+	 * Searches the occurrences of the element at the given pattern once by walking the AST and
+	 * once from an {@link OccurrencesIndex} and checks that the results are equal.
+	 *
+	 * @param cu the compilation unit
+	 * @param s the source of the compilation unit
+	 * @param pattern the pattern to select
+	 * @param ithOccurrence the occurrence of the pattern to select
+	 * @throws Exception if the search fails
+	 */
+	private void checkIndexedOccurrences(ICompilationUnit cu, StringBuffer s, String pattern, int ithOccurrence) throws Exception {
+		OccurrenceLocation selection= find(s, pattern, ithOccurrence);
+
+		CompilationUnit root= createAST(cu);
+		assertNull(OccurrencesIndex.getExistingIndex(root));
+		OccurrenceLocation[] expected= getOccurrences(root, selection);
+		assertNotNull(expected);
+
+		CompilationUnit indexedRoot= createAST(cu);
+		OccurrencesIndex.getIndex(indexedRoot);
+		assertNotNull(OccurrencesIndex.getExistingIndex(indexedRoot));
+		OccurrenceLocation[] actual= getOccurrences(indexedRoot, selection);
+		assertNotNull(actual);
+
+		assertEquals("number of occurrences", expected.length, actual.length);
+		for (int i= 0; i < expected.length; i++) {
+			assertEquals(expected[i].getOffset(), actual[i].getOffset());
+			assertEquals(expected[i].getLength(), actual[i].getLength());
+			assertEquals(expected[i].getFlags(), actual[i].getFlags());
+			assertEquals(expected[i].getDescription(), actual[i].getDescription());
+		}
+	}
+
+	private ICompilationUnit createCU(String packageName, String name, StringBuffer source) throws JavaModelException {
+		IPackageFragment pack= fSourceFolder.createPackageFragment(packageName, false, null);
+		return pack.createCompilationUnit(name, source.toString(), false, null);
+	}
+
+	private CompilationUnit createAST(ICompilationUnit cu) {
+		fParser.setSource(cu);
+		fParser.setResolveBindings(true);
+		return (CompilationUnit)fParser.createAST(null);
+	}
+
+	private OccurrenceLocation[] getOccurrences(CompilationUnit root, OccurrenceLocation selection) {
+		IOccurrencesFinder finder= new OccurrencesFinder();
+		String errorString= finder.initialize(root, selection.getOffset(), selection.getLength());
+		assertNull(errorString, errorString);
+		return finder.getOccurrences();
+	}
+
 	private void sortByStartIndex(OccurrenceLocation[] OccurrenceLocations) {
 		Arrays.sort(OccurrenceLocations, new Comparator<OccurrenceLocation>() {
 			@Override
@@ -517,4 +570,76 @@ public class MarkOccurrenceTest17 extends TestCase {
 		OccurrenceLocation[] ranges= { find(s, "Exception", 2), find(s, "URL", 3) };
 		checkSelection(s, offset, length, ranges);
 	}
+
+	public void testIndexedSelfQualifiedFields() throws Exception {
+		StringBuffer s= new StringBuffer();
+		s.append("package test1;\n");
+		s.append("public class E {\n");
+		s.append("    E next;\n");
+		s.append("    int value;\n");
+		s.append("    void foo(E e) {\n");
+		s.append("        next.next.value= next.value + e.next.next.value;\n");
+		s.append("        this.next.next= next;\n");
+		s.append("        next.next.next.value++;\n");
+		s.append("        e.next= this.next.next;\n");
+		s.append("    }\n");
+		s.append("}\n");
+		ICompilationUnit cu= createCU("test1", "E.java", s);
+		checkIndexedOccurrences(cu, s, "next", 1);
+		checkIndexedOccurrences(cu, s, "next", 3);
+		checkIndexedOccurrences(cu, s, "value", 1);
+		checkIndexedOccurrences(cu, s, "value", 2);
+		checkIndexedOccurrences(cu, s, "E", 2);
+	}
+
+	public void testIndexedQualifiedClassInstanceCreation() throws Exception {
+		StringBuffer foo= new StringBuffer();
+		foo.append("package p;\n");
+		foo.append("public class Foo<T> {\n");
+		foo.append("    public Foo() {\n");
+		foo.append("    }\n");
+		foo.append("    public Foo(T t) {\n");
+		foo.append("    }\n");
+		foo.append("}\n");
+		createCU("p", "Foo.java", foo);
+
+		StringBuffer s= new StringBuffer();
+		s.append("package test1;\n");
+		s.append("public class E {\n");
+		s.append("    p.Foo<String> f= new p.Foo<>();\n");
+		s.append("    p.Foo<String> g= new p.Foo<String>(\"g\");\n");
+		s.append("    p.Foo<?> h= new p.Foo<>(f);\n");
+		s.append("    Object create() {\n");
+		s.append("        return new p.Foo<>();\n");
+		s.append("    }\n");
+		s.append("}\n");
+		ICompilationUnit cu= createCU("test1", "E.java", s);
+		checkIndexedOccurrences(cu, s, "Foo", 1);
+		checkIndexedOccurrences(cu, s, "Foo", 2);
+		checkIndexedOccurrences(cu, s, "Foo", 4);
+		checkIndexedOccurrences(cu, s, "Foo", 7);
+		checkIndexedOccurrences(cu, s, "f", 1);
+	}
+
+	public void testIndexedStaticImports() throws Exception {
+		StringBuffer s= new StringBuffer();
+		s.append("package test1;\n");
+		s.append("import static java.lang.Math.PI;\n");
+		s.append("import static java.lang.Math.max;\n");
+		s.append("import static java.util.Collections.*;\n");
+		s.append("public class E {\n");
+		s.append("    double foo(double a) {\n");
+		s.append("        double b= max(a, PI) + Math.max(PI, a) + java.lang.Math.PI;\n");
+		s.append("        return b + emptyList().size() + max(1, 2);\n");
+		s.append("    }\n");
+		s.append("}\n");
+		ICompilationUnit cu= createCU("test1", "E.java", s);
+		checkIndexedOccurrences(cu, s, "PI", 1);
+		checkIndexedOccurrences(cu, s, "PI", 2);
+		checkIndexedOccurrences(cu, s, "PI", 4);
+		checkIndexedOccurrences(cu, s, "max", 1);
+		checkIndexedOccurrences(cu, s, "max", 2);
+		checkIndexedOccurrences(cu, s, "max", 3);
+		checkIndexedOccurrences(cu, s, "emptyList", 1);
+	}
 }
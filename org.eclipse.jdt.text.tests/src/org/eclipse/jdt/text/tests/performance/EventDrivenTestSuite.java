@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -31,6 +31,7 @@ public class EventDrivenTestSuite extends TestSuite {
 
 	public EventDrivenTestSuite() {
 		addTest(new DebugSetup(JavaNonInitialTypingTest.suite()));
+		addTest(new DebugSetup(LargeFileJavaTypingTest.suite()));
 		addTest(new DebugSetup(TextNonInitialTypingTest.suite()));
 		addTest(new DebugSetup(ScrollJavaEditorTest.suite()));
 		addTest(new DebugSetup(ScrollTextEditorTest.suite()));
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jdt.text.tests.performance;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.internal.ui.javaeditor.LargeFileMode;
+
+/**
+ * Measures the time to type in one single method into a generated Java class that exceeds the
+ * line threshold of the large-file mode of the Java editor.
+ *
+ * @since 3.14
+ */
+public class LargeFileJavaTypingTest extends NonInitialTypingTest {
+
+	private static final String FILE= "/" + PerformanceTestSetup.PROJECT + "/Eclipse SWT Custom Widgets/common/org/eclipse/swt/custom/LargeGeneratedClass.java";
+
+	private static final int METHOD_LINES= 9;
+
+	private static final Class<LargeFileJavaTypingTest> THIS= LargeFileJavaTypingTest.class;
+
+	private static class LargeFileSetup extends TestSetup {
+
+		public LargeFileSetup(Test test) {
+			super(test);
+		}
+
+		@Override
+		protected void setUp() throws Exception {
+			ResourceTestHelper.write(FILE, createContent());
+			EditorTestHelper.joinBackgroundActivities();
+		}
+
+		@Override
+		protected void tearDown() throws Exception {
+			ResourceTestHelper.delete(FILE);
+		}
+
+		private static String createContent() {
+			int methods= LargeFileMode.LINE_THRESHOLD / METHOD_LINES + 500;
+			StringBuffer buf= new StringBuffer();
+			buf.append("package org.eclipse.swt.custom;\n\n");
+			buf.append("import java.util.ArrayList;\n");
+			buf.append("import java.util.List;\n\n");
+			buf.append("public class LargeGeneratedClass {\n\n");
+			buf.append("\tprivate final List<String> fValues= new ArrayList<>();\n\n");
+			for (int i= 0; i < methods; i++) {
+				buf.append("\t/**\n");
+				buf.append("\t * Generated method ").append(i).append(".\n");
+				buf.append("\t */\n");
+				buf.append("\tpublic int method").append(i).append("(int param) {\n");
+				buf.append("\t\tint local= param * ").append(i).append(";\n");
+				buf.append("\t\tfValues.add(String.valueOf(local));\n");
+				buf.append("\t\treturn local + fValues.size();\n");
+				buf.append("\t}\n\n");
+			}
+			buf.append("}\n");
+			return buf.toString();
+		}
+	}
+
+	public static Test suite() {
+		return new PerformanceTestSetup(new LargeFileSetup(new TestSuite(THIS)));
+	}
+
+	@Override
+	protected String getFile() {
+		return FILE;
+	}
+
+	@Override
+	protected String getEditorId() {
+		return "org.eclipse.jdt.ui.CompilationUnitEditor";
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -50,7 +50,7 @@ public abstract class NonInitialTypingTest extends TextPerformanceTestCase {
 	protected void setUp() throws Exception {
 		super.setUp();
 		EditorTestHelper.runEventQueue();
-		fEditor= (ITextEditor) EditorTestHelper.openInEditor(ResourceTestHelper.findFile(FILE), getEditorId(), true);
+		fEditor= (ITextEditor) EditorTestHelper.openInEditor(ResourceTestHelper.findFile(getFile()), getEditorId(), true);
 		// dirty editor to avoid initial dirtying / validate edit costs
 		dirtyEditor();
 		Performance performance= Performance.getDefault();
@@ -72,6 +72,16 @@ public abstract class NonInitialTypingTest extends TextPerformanceTestCase {
 
 	protected abstract String getEditorId();
 
+	/**
+	 * Returns the workspace path of the file to type into.
+	 *
+	 * @return the file path
+	 * @since 3.14
+	 */
+	protected String getFile() {
+		return FILE;
+	}
+
 	protected String getScenarioId() {
 		return Performance.getDefault().getDefaultScenarioId(this);
 	}
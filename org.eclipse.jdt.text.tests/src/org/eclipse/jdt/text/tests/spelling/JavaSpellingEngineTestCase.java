@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.text.tests.spelling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
+
+import org.eclipse.ui.texteditor.spelling.ISpellingProblemCollector;
+import org.eclipse.ui.texteditor.spelling.SpellingProblem;
+
+import org.eclipse.jdt.ui.PreferenceConstants;
+import org.eclipse.jdt.ui.text.IJavaPartitions;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+import org.eclipse.jdt.internal.ui.text.spelling.JavaSpellingEngine;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.DefaultSpellChecker;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellCheckIterator;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellDictionary;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellEventListener;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.RankedWordProposal;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests that {@link JavaSpellingEngine} only checks new or modified partitions again and reports
+ * the remembered problems of the other partitions at their current offsets.
+ */
+public class JavaSpellingEngineTestCase extends TestCase {
+
+	private static final String COMMENT= "// Some wrnog text\n";
+
+	private static final String MISSPELLED= "wrnog";
+
+	/**
+	 * Spell checker that counts the checked partitions.
+	 */
+	private static class CountingSpellChecker implements ISpellChecker {
+
+		private final ISpellChecker fDelegate;
+
+		private int fExecutions;
+
+		CountingSpellChecker(ISpellChecker delegate) {
+			fDelegate= delegate;
+		}
+
+		@Override
+		public void addDictionary(ISpellDictionary dictionary) {
+			fDelegate.addDictionary(dictionary);
+		}
+
+		@Override
+		public boolean acceptsWords() {
+			return fDelegate.acceptsWords();
+		}
+
+		@Override
+		public void addWord(String word) {
+			fDelegate.addWord(word);
+		}
+
+		@Override
+		public void checkWord(String word) {
+			fDelegate.checkWord(word);
+		}
+
+		@Override
+		public void execute(ISpellEventListener listener, ISpellCheckIterator iterator) {
+			fExecutions++;
+			fDelegate.execute(listener, iterator);
+		}
+
+		@Override
+		public Set<RankedWordProposal> getProposals(String word, boolean sentence) {
+			return fDelegate.getProposals(word, sentence);
+		}
+
+		@Override
+		public void ignoreWord(String word) {
+			fDelegate.ignoreWord(word);
+		}
+
+		@Override
+		public boolean isCorrect(String word) {
+			return fDelegate.isCorrect(word);
+		}
+
+		@Override
+		public void removeDictionary(ISpellDictionary dictionary) {
+			fDelegate.removeDictionary(dictionary);
+		}
+
+		@Override
+		public Locale getLocale() {
+			return fDelegate.getLocale();
+		}
+	}
+
+	private static class ProblemCollector implements ISpellingProblemCollector {
+
+		private final List<SpellingProblem> fProblems= new ArrayList<>();
+
+		@Override
+		public void accept(SpellingProblem problem) {
+			fProblems.add(problem);
+		}
+
+		@Override
+		public void beginCollecting() {
+		}
+
+		@Override
+		public void endCollecting() {
+		}
+	}
+
+	/**
+	 * Gives access to the spell checking method that takes the spell checker.
+	 */
+	private static class TestSpellingEngine extends JavaSpellingEngine {
+
+		List<SpellingProblem> check(IDocument document, ISpellChecker checker) {
+			ProblemCollector collector= new ProblemCollector();
+			check(document, new IRegion[] { new Region(0, document.getLength()) }, checker, collector, null);
+			return collector.fProblems;
+		}
+	}
+
+	public static Test suite() {
+		return new TestSuite(JavaSpellingEngineTestCase.class);
+	}
+
+	private final SpellCheckEngineTestCase.TestDictionary fDictionary= new SpellCheckEngineTestCase.TestDictionary();
+
+	private final TestSpellingEngine fEngine= new TestSpellingEngine();
+
+	private CountingSpellChecker fChecker;
+
+	public JavaSpellingEngineTestCase(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fDictionary.addWord("Some");
+		fDictionary.addWord("text");
+		ISpellChecker checker= new DefaultSpellChecker(PreferenceConstants.getPreferenceStore(), Locale.US);
+		checker.addDictionary(fDictionary);
+		fChecker= new CountingSpellChecker(checker);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fDictionary.unload();
+		super.tearDown();
+	}
+
+	private IDocument createDocument(String content) {
+		IDocument document= new Document(content);
+		JavaPlugin.getDefault().getJavaTextTools().setupJavaDocumentPartitioner(document, IJavaPartitions.JAVA_PARTITIONING);
+		return document;
+	}
+
+	private void assertProblem(IDocument document, SpellingProblem problem, int offset, String word) throws Exception {
+		assertEquals(offset, problem.getOffset());
+		assertEquals(word.length(), problem.getLength());
+		assertEquals(word, document.get(problem.getOffset(), problem.getLength()));
+	}
+
+	public void testMovedPartition() throws Exception {
+		IDocument document= createDocument("class A {\n" + COMMENT + "}\n");
+		int offset= document.get().indexOf(MISSPELLED);
+
+		List<SpellingProblem> problems= fEngine.check(document, fChecker);
+		assertEquals(1, fChecker.fExecutions);
+		assertEquals(1, problems.size());
+		assertProblem(document, problems.get(0), offset, MISSPELLED);
+
+		document.replace(0, 0, "\n\n");
+		problems= fEngine.check(document, fChecker);
+		assertEquals(1, fChecker.fExecutions);
+		assertEquals(1, problems.size());
+		assertProblem(document, problems.get(0), offset + 2, MISSPELLED);
+	}
+
+	public void testEditedPartition() throws Exception {
+		IDocument document= createDocument("class A {\n" + COMMENT + "}\n");
+
+		List<SpellingProblem> problems= fEngine.check(document, fChecker);
+		assertEquals(1, fChecker.fExecutions);
+		assertEquals(1, problems.size());
+
+		int textOffset= document.get().indexOf("text");
+		document.replace(textOffset, 4, "txet");
+		problems= fEngine.check(document, fChecker);
+		assertEquals(2, fChecker.fExecutions);
+		assertEquals(2, problems.size());
+		assertProblem(document, problems.get(0), document.get().indexOf(MISSPELLED), MISSPELLED);
+		assertProblem(document, problems.get(1), textOffset, "txet");
+	}
+
+	public void testWordAddedToDictionary() throws Exception {
+		IDocument document= createDocument("class A {\n" + COMMENT + "}\n");
+
+		List<SpellingProblem> problems= fEngine.check(document, fChecker);
+		assertEquals(1, fChecker.fExecutions);
+		assertEquals(1, problems.size());
+
+		fDictionary.addWord(MISSPELLED);
+		problems= fEngine.check(document, fChecker);
+		assertEquals(1, fChecker.fExecutions);
+		assertEquals(0, problems.size());
+	}
+
+	public void testIdenticalPartitions() throws Exception {
+		IDocument document= createDocument("class A {\n" + COMMENT + "\tint i;\n" + COMMENT + "}\n");
+		int first= document.get().indexOf(MISSPELLED);
+		int second= document.get().lastIndexOf(MISSPELLED);
+
+		List<SpellingProblem> problems= fEngine.check(document, fChecker);
+		assertEquals(1, fChecker.fExecutions);
+		assertEquals(2, problems.size());
+		assertProblem(document, problems.get(0), first, MISSPELLED);
+		assertProblem(document, problems.get(1), second, MISSPELLED);
+
+		problems= fEngine.check(document, fChecker);
+		assertEquals(1, fChecker.fExecutions);
+		assertEquals(2, problems.size());
+		assertProblem(document, problems.get(0), first, MISSPELLED);
+		assertProblem(document, problems.get(1), second, MISSPELLED);
+	}
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.refactoring;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.ltk.core.refactoring.RefactoringCore;
+import org.eclipse.ltk.core.refactoring.RefactoringDescriptor;
+import org.eclipse.ltk.core.refactoring.RefactoringSessionDescriptor;
+import org.eclipse.ltk.core.refactoring.history.IRefactoringHistoryService;
+import org.eclipse.ltk.core.refactoring.history.RefactoringHistory;
+
+import org.eclipse.jdt.core.refactoring.descriptors.InlineMethodDescriptor;
+
+import org.eclipse.jdt.ui.tests.performance.JdtPerformanceTestCase;
+
+/**
+ * Measures writing and reading a refactoring script with 100,000 refactorings.
+ */
+public class RefactoringHistoryPerfTests extends JdtPerformanceTestCase {
+
+	private static final int DESCRIPTOR_COUNT= 100000;
+
+	private RefactoringSessionDescriptor fSession;
+
+	public static Test suite() {
+		return new TestSuite(RefactoringHistoryPerfTests.class);
+	}
+
+	public RefactoringHistoryPerfTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		RefactoringDescriptor[] descriptors= new RefactoringDescriptor[DESCRIPTOR_COUNT];
+		for (int i= 0; i < DESCRIPTOR_COUNT; i++) {
+			Map<String, String> arguments= new HashMap<>();
+			arguments.put("input", "=TestProject/src<p{A" + i + ".java[A" + i);
+			arguments.put("selection", i + " " + 10);
+			arguments.put("mode", "1");
+			arguments.put("delete", "true");
+			InlineMethodDescriptor descriptor= new InlineMethodDescriptor("TestProject", "Inline method 'A" + i + ".m()'", "Inline method <m> in A" + i, arguments, RefactoringDescriptor.STRUCTURAL_CHANGE);
+			descriptor.setTimeStamp(i + 1);
+			descriptors[i]= descriptor;
+		}
+		fSession= new RefactoringSessionDescriptor(descriptors, RefactoringSessionDescriptor.VERSION_1_0, null);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fSession= null;
+		super.tearDown();
+	}
+
+	public void testWriteSession() throws Exception {
+		measureWrite(Performance.getDefault().getNullPerformanceMeter(), 2);
+		measureWrite(fPerformanceMeter, 5);
+
+		commitMeasurements();
+		Performance.getDefault().assertPerformance(fPerformanceMeter);
+	}
+
+	public void testReadSession() throws Exception {
+		byte[] script= write();
+		measureRead(Performance.getDefault().getNullPerformanceMeter(), script, 2);
+		measureRead(fPerformanceMeter, script, 5);
+
+		commitMeasurements();
+		Performance.getDefault().assertPerformance(fPerformanceMeter);
+	}
+
+	private byte[] write() throws Exception {
+		ByteArrayOutputStream output= new ByteArrayOutputStream();
+		RefactoringCore.getHistoryService().writeRefactoringSession(fSession, output, true);
+		return output.toByteArray();
+	}
+
+	private void measureWrite(PerformanceMeter performanceMeter, int runs) throws Exception {
+		for (int j= 0; j < runs; j++) {
+			System.gc();
+			performanceMeter.start();
+			byte[] script= write();
+			performanceMeter.stop();
+			assertTrue(script.length > 0);
+		}
+	}
+
+	private void measureRead(PerformanceMeter performanceMeter, byte[] script, int runs) throws Exception {
+		IRefactoringHistoryService service= RefactoringCore.getHistoryService();
+		for (int j= 0; j < runs; j++) {
+			System.gc();
+			performanceMeter.start();
+			RefactoringHistory history= service.readRefactoringHistory(new ByteArrayInputStream(script), RefactoringDescriptor.NONE);
+			performanceMeter.stop();
+			assertEquals(DESCRIPTOR_COUNT, history.getDescriptors().length);
+		}
+	}
+}
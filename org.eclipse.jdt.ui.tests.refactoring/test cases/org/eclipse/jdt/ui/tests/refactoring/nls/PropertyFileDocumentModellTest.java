@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,6 +17,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.NullProgressMonitor;
 
 import org.eclipse.text.edits.DeleteEdit;
+import org.eclipse.text.edits.MultiTextEdit;
 import org.eclipse.text.edits.ReplaceEdit;
 
 import org.eclipse.jface.text.Document;
@@ -273,6 +274,38 @@ public class PropertyFileDocumentModellTest extends TestCase {
 				"org.eclipse.what value\n", props.get());
 	}
 
+	public void testManyInsertsIntoLargeDoc() throws Exception {
+		StringBuffer buf= new StringBuffer();
+		StringBuffer expected= new StringBuffer();
+		KeyValuePair[] pairs= new KeyValuePair[2000];
+		for (int i= 0; i < 4000; i++) {
+			String line= "key_" + String.format("%04d", Integer.valueOf(i)) + "=value\n";
+			if (i % 2 == 0)
+				buf.append(line);
+			else
+				pairs[i / 2]= new KeyValuePair("key_" + String.format("%04d", Integer.valueOf(i)), "value");
+			expected.append(line);
+		}
+		Document props= new Document(buf.toString());
+
+		insert(props, pairs);
+
+		assertEquals(expected.toString(), props.get());
+	}
+
+	public void testRemovingOfDuplicateKey() throws Exception {
+		Document props= new Document("org.eclipse.1=value1\n" + "org.eclipse.2=value2\n" + "org.eclipse.1=value3\n");
+		PropertyFileDocumentModel modell= new PropertyFileDocumentModel(props);
+
+		MultiTextEdit edit= new MultiTextEdit();
+		edit.addChild(modell.remove("org.eclipse.1"));
+		edit.addChild(modell.remove("org.eclipse.1"));
+		assertNull(modell.remove("org.eclipse.1"));
+		edit.apply(props);
+
+		assertEquals("org.eclipse.2=value2\n", props.get());
+	}
+
 	public void testRemovingOfKey() throws Exception {
 		Document props= new Document("org.eclipse.1=value1\n" + "org.eclipse.2=value2\n" + "org.eclipse.3=value3\n");
 		PropertyFileDocumentModel modell= new PropertyFileDocumentModel(props);
@@ -31,8 +31,13 @@ import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.ASTParser;
 import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.manipulation.OrganizeImportsOperation;
+
+import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
+import org.eclipse.jdt.internal.corext.util.TypeNameMatchIndex;
+
 import org.eclipse.jdt.ui.SharedASTProvider;
 
 import org.eclipse.jdt.ui.tests.performance.JdtPerformanceTestCase;
@@ -65,7 +70,9 @@ public class OrganizeImportsPerfTest extends JdtPerformanceTestCase {
 
 	public static Test suite() {
 		return new MyTestSetup(new OrderedTestSuite(OrganizeImportsPerfTest.class, new String[] {
-			"testOrganizeImport"
+			"testOrganizeImport",
+			"testOrganizeImportBulkPerUnit",
+			"testOrganizeImportBulk"
 		}));
 	}
 
@@ -107,6 +114,80 @@ public class OrganizeImportsPerfTest extends JdtPerformanceTestCase {
 		Performance.getDefault().assertPerformance(fPerformanceMeter);
 	}
 
+	/**
+	 * Organizes the imports of all compilation units with their import declarations removed,
+	 * resolving the unresolved type names with one search per compilation unit.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testOrganizeImportBulkPerUnit() throws Exception {
+		measureBulk(false);
+	}
+
+	/**
+	 * Organizes the imports of all compilation units with their import declarations removed,
+	 * resolving the unresolved type names against a shared type name index.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testOrganizeImportBulk() throws Exception {
+		measureBulk(true);
+	}
+
+	private void measureBulk(boolean useIndex) throws Exception {
+		List<IJavaElement> cusList= new ArrayList<>();
+		addAllCUs(MyTestSetup.fJProject1.getChildren(), cusList);
+		ICompilationUnit[] cus= cusList.toArray(new ICompilationUnit[cusList.size()]);
+		ICompilationUnit[] copies= new ICompilationUnit[cus.length];
+		try {
+			for (int i= 0; i < cus.length; i++) {
+				copies[i]= cus[i].getWorkingCopy(null);
+				copies[i].getBuffer().setContents(copies[i].getSource().replaceAll("(?m)^import [^;]*;", ""));
+			}
+
+			measureBulk(Performance.getDefault().getNullPerformanceMeter(), copies, useIndex, 2);
+			measureBulk(fPerformanceMeter, copies, useIndex, 5);
+
+			commitMeasurements();
+			Performance.getDefault().assertPerformance(fPerformanceMeter);
+		} finally {
+			for (int i= 0; i < copies.length; i++) {
+				if (copies[i] != null)
+					copies[i].discardWorkingCopy();
+			}
+		}
+	}
+
+	private void measureBulk(PerformanceMeter performanceMeter, ICompilationUnit[] copies, boolean useIndex, int runs) throws Exception {
+		for (int j= 0; j < runs; j++) {
+			CompilationUnit[] roots= new CompilationUnit[copies.length];
+			for (int i= 0; i < copies.length; i++) {
+				ASTParser parser= ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
+				parser.setSource(copies[i]);
+				parser.setResolveBindings(true);
+				roots[i]= (CompilationUnit) parser.createAST(null);
+			}
+
+			joinBackgroudActivities();
+
+			TypeNameMatchIndex typeNameIndex= null;
+			performanceMeter.start();
+			try {
+				if (useIndex)
+					typeNameIndex= new TypeNameMatchIndex();
+				for (int i= 0; i < roots.length; i++) {
+					OrganizeImportsOperation op= new OrganizeImportsOperation(copies[i], roots[i], true, false, true, null);
+					op.setTypeNameMatchIndex(typeNameIndex);
+					op.createTextEdit(new NullProgressMonitor());
+				}
+			} finally {
+				performanceMeter.stop();
+				if (typeNameIndex != null)
+					typeNameIndex.dispose();
+			}
+		}
+	}
+
 	private void measure(PerformanceMeter performanceMeter, int runs) throws Exception {
 		for (int j= 0; j < runs; j++) {
 			List<IJavaElement> cusList= new ArrayList<>();
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.performance.views;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IOrdinaryClassFile;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.search.SearchMatch;
+
+import org.eclipse.jdt.internal.ui.search.JavaSearchResult;
+import org.eclipse.jdt.internal.ui.search.NewSearchResultCollector;
+
+import org.eclipse.jdt.ui.tests.performance.JdtPerformanceTestCase;
+
+/**
+ * Measures how fast {@link NewSearchResultCollector} adds a large number of matches to a search
+ * result. The matches are synthetic and report a few matches in each method of the JRE.
+ */
+public class SearchResultCollectorPerfTest extends JdtPerformanceTestCase {
+
+	private static final int MATCH_COUNT= 150000;
+
+	private static final int MATCHES_PER_METHOD= 10;
+
+	private static class MyTestSetup extends TestSetup {
+
+		public static IJavaProject fJProject1;
+
+		public static IPackageFragmentRoot fLibrary;
+
+		public MyTestSetup(Test test) {
+			super(test);
+		}
+
+		@Override
+		protected void setUp() throws Exception {
+			fJProject1= JavaProjectHelper.createJavaProject("TestProject1", "bin");
+			fLibrary= JavaProjectHelper.addRTJar18(fJProject1);
+			assertTrue("rt not found", fLibrary != null);
+		}
+
+		@Override
+		protected void tearDown() throws Exception {
+			if (fJProject1 != null && fJProject1.exists())
+				JavaProjectHelper.delete(fJProject1);
+		}
+	}
+
+	private List<SearchMatch> fMatches;
+
+	public static Test suite() {
+		return new MyTestSetup(new TestSuite(SearchResultCollectorPerfTest.class));
+	}
+
+	public static Test setUpTest(Test someTest) {
+		return new MyTestSetup(someTest);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fMatches= new ArrayList<>(MATCH_COUNT);
+
+		IJavaElement[] packages= MyTestSetup.fLibrary.getChildren();
+		for (int i= 0; i < packages.length && fMatches.size() < MATCH_COUNT; i++) {
+			IClassFile[] classFiles= ((IPackageFragment) packages[i]).getClassFiles();
+			for (int j= 0; j < classFiles.length && fMatches.size() < MATCH_COUNT; j++) {
+				if (!(classFiles[j] instanceof IOrdinaryClassFile))
+					continue;
+				IMethod[] methods= ((IOrdinaryClassFile) classFiles[j]).getType().getMethods();
+				for (int k= 0; k < methods.length && fMatches.size() < MATCH_COUNT; k++) {
+					for (int m= 0; m < MATCHES_PER_METHOD; m++) {
+						fMatches.add(new SearchMatch(methods[k], SearchMatch.A_ACCURATE, m, 1, null, null));
+					}
+				}
+			}
+		}
+		assertTrue("not enough methods in rt", fMatches.size() >= MATCH_COUNT);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fMatches= null;
+		super.tearDown();
+	}
+
+	public void testCollectMatches() throws Exception {
+		measure(Performance.getDefault().getNullPerformanceMeter(), 2);
+		measure(fPerformanceMeter, 10);
+
+		commitMeasurements();
+		Performance.getDefault().assertPerformance(fPerformanceMeter);
+	}
+
+	private void measure(PerformanceMeter performanceMeter, int runs) throws Exception {
+		joinBackgroudActivities();
+
+		for (int j= 0; j < runs; j++) {
+			JavaSearchResult result= new JavaSearchResult(null);
+			NewSearchResultCollector collector= new NewSearchResultCollector(result, false);
+			performanceMeter.start();
+			collector.beginReporting();
+			for (int i= 0; i < fMatches.size(); i++) {
+				collector.acceptSearchMatch(fMatches.get(i));
+			}
+			collector.endReporting();
+			performanceMeter.stop();
+			assertEquals(fMatches.size(), result.getMatchCount());
+		}
+	}
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.performance.views;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.search.ui.NewSearchUI;
+import org.eclipse.search.ui.text.Match;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IOrdinaryClassFile;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.internal.ui.search.JavaSearchResult;
+import org.eclipse.jdt.internal.ui.search.SearchResultUpdater;
+
+import org.eclipse.jdt.ui.tests.packageview.TestDelta;
+import org.eclipse.jdt.ui.tests.performance.JdtPerformanceTestCase;
+
+/**
+ * Measures how {@link SearchResultUpdater} handles Java element deltas for a search result with
+ * a large number of matches. The deltas are synthetic and report class files as removed that
+ * still exist, so the result is not modified by the measured runs.
+ */
+public class SearchResultUpdaterPerfTest extends JdtPerformanceTestCase {
+
+	private static final int MATCHES_PER_METHOD= 10;
+
+	private static final int DELTAS_PER_RUN= 200;
+
+	private static class MyTestSetup extends TestSetup {
+
+		public static IJavaProject fJProject1;
+
+		public static IPackageFragmentRoot fLibrary;
+
+		public MyTestSetup(Test test) {
+			super(test);
+		}
+
+		@Override
+		protected void setUp() throws Exception {
+			fJProject1= JavaProjectHelper.createJavaProject("TestProject1", "bin");
+			fLibrary= JavaProjectHelper.addRTJar18(fJProject1);
+			assertTrue("rt not found", fLibrary != null);
+		}
+
+		@Override
+		protected void tearDown() throws Exception {
+			if (fJProject1 != null && fJProject1.exists())
+				JavaProjectHelper.delete(fJProject1);
+		}
+	}
+
+	private JavaSearchResult fResult;
+
+	private SearchResultUpdater fUpdater;
+
+	private List<IClassFile> fClassFiles;
+
+	public static Test suite() {
+		return new MyTestSetup(new TestSuite(SearchResultUpdaterPerfTest.class));
+	}
+
+	public static Test setUpTest(Test someTest) {
+		return new MyTestSetup(someTest);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fResult= new JavaSearchResult(null);
+		fUpdater= new SearchResultUpdater(fResult);
+		fClassFiles= new ArrayList<>();
+
+		IJavaElement[] packages= MyTestSetup.fLibrary.getChildren();
+		for (int i= 0; i < packages.length; i++) {
+			IClassFile[] classFiles= ((IPackageFragment) packages[i]).getClassFiles();
+			for (int j= 0; j < classFiles.length; j++) {
+				if (!(classFiles[j] instanceof IOrdinaryClassFile))
+					continue;
+				fClassFiles.add(classFiles[j]);
+				IType type= ((IOrdinaryClassFile) classFiles[j]).getType();
+				fResult.addMatch(new Match(type, 0, 1));
+				IMethod[] methods= type.getMethods();
+				for (int k= 0; k < methods.length; k++) {
+					for (int m= 0; m < MATCHES_PER_METHOD; m++) {
+						fResult.addMatch(new Match(methods[k], m, 1));
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		JavaCore.removeElementChangedListener(fUpdater);
+		NewSearchUI.removeQueryListener(fUpdater);
+		fResult.removeAll();
+		super.tearDown();
+	}
+
+	public void testClassFileDeltas() throws Exception {
+		measure(Performance.getDefault().getNullPerformanceMeter(), 2);
+		measure(fPerformanceMeter, 10);
+
+		commitMeasurements();
+		Performance.getDefault().assertPerformance(fPerformanceMeter);
+	}
+
+	private void measure(PerformanceMeter performanceMeter, int runs) throws Exception {
+		int matchCount= fResult.getMatchCount();
+		ElementChangedEvent[] events= new ElementChangedEvent[DELTAS_PER_RUN];
+		int step= Math.max(1, fClassFiles.size() / DELTAS_PER_RUN);
+		for (int i= 0; i < events.length; i++) {
+			IClassFile classFile= fClassFiles.get((i * step) % fClassFiles.size());
+			IPackageFragment pack= (IPackageFragment) classFile.getParent();
+			TestDelta packDelta= new TestDelta(IJavaElementDelta.CHANGED, pack);
+			packDelta.setAffectedChildren(new IJavaElementDelta[] { new TestDelta(IJavaElementDelta.REMOVED, classFile) });
+			events[i]= new ElementChangedEvent(TestDelta.createParentDeltas(pack, packDelta), ElementChangedEvent.POST_CHANGE);
+		}
+		joinBackgroudActivities();
+
+		for (int j= 0; j < runs; j++) {
+			performanceMeter.start();
+			for (int i= 0; i < events.length; i++) {
+				fUpdater.elementChanged(events[i]);
+			}
+			performanceMeter.stop();
+		}
+		assertEquals(matchCount, fResult.getMatchCount());
+	}
+}
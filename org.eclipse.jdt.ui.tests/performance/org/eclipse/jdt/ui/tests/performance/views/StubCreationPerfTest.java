@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.performance.views;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+
+import org.eclipse.core.filesystem.IFileStore;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.core.resources.IFolder;
+
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.internal.corext.refactoring.binary.StubCreationOperation;
+
+import org.eclipse.jdt.ui.tests.performance.JdtPerformanceTestCase;
+
+/**
+ * Measures the creation of source stubs for the class files of a library, as done by the JAR
+ * import wizard when the imported JAR has no source attachment.
+ */
+public class StubCreationPerfTest extends JdtPerformanceTestCase {
+
+	private static class MyTestSetup extends TestSetup {
+		public static final String STUB_CONTAINER= "stubs";
+
+		public static IJavaProject fJProject1;
+
+		public static IPackageFragmentRoot fLibrary;
+
+		public MyTestSetup(Test test) {
+			super(test);
+		}
+
+		@Override
+		protected void setUp() throws Exception {
+			fJProject1= JavaProjectHelper.createJavaProject("TestProject1", "bin");
+			fLibrary= JavaProjectHelper.addRTJar18(fJProject1);
+			assertTrue("rt not found", fLibrary != null);
+		}
+
+		@Override
+		protected void tearDown() throws Exception {
+			if (fJProject1 != null && fJProject1.exists())
+				JavaProjectHelper.delete(fJProject1);
+		}
+	}
+
+	public static Test suite() {
+		return new MyTestSetup(new TestSuite(StubCreationPerfTest.class));
+	}
+
+	public static Test setUpTest(Test someTest) {
+		return new MyTestSetup(someTest);
+	}
+
+	public void testCreateStubs() throws Exception {
+		measure(Performance.getDefault().getNullPerformanceMeter(), 2);
+		measure(fPerformanceMeter, 10);
+
+		commitMeasurements();
+		Performance.getDefault().assertPerformance(fPerformanceMeter);
+	}
+
+	private void measure(PerformanceMeter performanceMeter, int runs) throws Exception {
+		List<IPackageFragment> packages= new ArrayList<>();
+		IJavaElement[] children= MyTestSetup.fLibrary.getChildren();
+		for (int i= 0; i < children.length; i++) {
+			packages.add((IPackageFragment) children[i]);
+		}
+
+		for (int j= 0; j < runs; j++) {
+			final IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(MyTestSetup.fJProject1, MyTestSetup.STUB_CONTAINER);
+			IFolder folder= (IFolder) sourceFolder.getResource();
+			StubCreationOperation operation= new StubCreationOperation(folder.getRawLocationURI(), packages, true) {
+
+				private IPackageFragment fFragment= null;
+
+				@Override
+				protected void createCompilationUnit(IFileStore store, String name, String content, IProgressMonitor pm) throws CoreException {
+					fFragment.createCompilationUnit(name, content, true, pm);
+				}
+
+				@Override
+				protected void createPackageFragment(IFileStore store, String name, IProgressMonitor pm) throws CoreException {
+					fFragment= sourceFolder.createPackageFragment(name, true, pm);
+				}
+			};
+			joinBackgroudActivities();
+
+			performanceMeter.start();
+			JavaCore.run(operation, folder, new NullProgressMonitor());
+			performanceMeter.stop();
+
+			JavaProjectHelper.removeSourceContainer(MyTestSetup.fJProject1, MyTestSetup.STUB_CONTAINER);
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.core;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.compiler.IScanner;
+import org.eclipse.jdt.core.compiler.ITerminalSymbols;
+
+import org.eclipse.jdt.internal.corext.dom.ScannerPool;
+
+public class ScannerPoolTest extends TestCase {
+
+	private static final Class<ScannerPoolTest> THIS= ScannerPoolTest.class;
+
+	public ScannerPoolTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return new TestSuite(THIS);
+	}
+
+	public void testReuseAfterRelease() throws Exception {
+		IScanner scanner= ScannerPool.acquire(true, true, false, true);
+		ScannerPool.release(scanner);
+
+		IScanner reused= ScannerPool.acquire(true, true, false, true);
+		try {
+			assertSame(scanner, reused);
+		} finally {
+			ScannerPool.release(reused);
+		}
+	}
+
+	public void testNoSharingWhileInUse() throws Exception {
+		IScanner scanner1= ScannerPool.acquire(true, true, false, true);
+		IScanner scanner2= ScannerPool.acquire(true, true, false, true);
+		try {
+			assertNotSame(scanner1, scanner2);
+		} finally {
+			ScannerPool.release(scanner2);
+			ScannerPool.release(scanner1);
+		}
+	}
+
+	public void testDifferentConfigurations() throws Exception {
+		IScanner scanner= ScannerPool.acquire(true, true, false, true);
+		ScannerPool.release(scanner);
+
+		IScanner other= ScannerPool.acquire(false, false, false, true);
+		try {
+			assertNotSame(scanner, other);
+		} finally {
+			ScannerPool.release(other);
+		}
+
+		IScanner scanner14= ScannerPool.acquire(true, true, true, JavaCore.VERSION_1_4, JavaCore.VERSION_1_4);
+		ScannerPool.release(scanner14);
+
+		IScanner scanner18= ScannerPool.acquire(true, true, true, JavaCore.VERSION_1_8, JavaCore.VERSION_1_8);
+		try {
+			assertNotSame(scanner14, scanner18);
+		} finally {
+			ScannerPool.release(scanner18);
+		}
+	}
+
+	public void testReleaseResetsScanner() throws Exception {
+		IScanner scanner= ScannerPool.acquire(true, true, false, true);
+		scanner.setSource("class A {\n}\n".toCharArray());
+		assertEquals(ITerminalSymbols.TokenNameclass, scanner.getNextToken());
+		ScannerPool.release(scanner);
+
+		IScanner reused= ScannerPool.acquire(true, true, false, true);
+		try {
+			assertSame(scanner, reused);
+			assertEquals(0, reused.getSource().length);
+			assertEquals(ITerminalSymbols.TokenNameEOF, reused.getNextToken());
+
+			reused.setSource("int i;".toCharArray());
+			assertEquals(ITerminalSymbols.TokenNameint, reused.getNextToken());
+			assertEquals(0, reused.getCurrentTokenStartPosition());
+		} finally {
+			ScannerPool.release(reused);
+		}
+	}
+
+	public void testThreadConfinement() throws Exception {
+		final IScanner[] scanners= new IScanner[1];
+		Thread thread= new Thread() {
+			@Override
+			public void run() {
+				scanners[0]= ScannerPool.acquire(true, true, false, true);
+				ScannerPool.release(scanners[0]);
+			}
+		};
+		thread.start();
+		thread.join();
+		assertNotNull(scanners[0]);
+
+		IScanner scanner= ScannerPool.acquire(true, true, false, true);
+		try {
+			assertNotSame(scanners[0], scanner);
+		} finally {
+			ScannerPool.release(scanner);
+		}
+	}
+}
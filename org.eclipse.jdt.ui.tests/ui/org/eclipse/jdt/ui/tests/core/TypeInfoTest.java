@@ -12,6 +12,7 @@ package org.eclipse.jdt.ui.tests.core;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import junit.framework.Test;
@@ -38,6 +39,9 @@ import org.eclipse.jdt.core.search.SearchPattern;
 import org.eclipse.jdt.core.search.TypeNameMatch;
 import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
 
+import org.eclipse.jdt.internal.corext.util.TypeInfoFilter;
+import org.eclipse.jdt.internal.corext.util.TypeNameSnapshot;
+
 
 
 public class TypeInfoTest extends TestCase {
@@ -229,4 +233,76 @@ public class TypeInfoTest extends TestCase {
 
 	}
 
+	public void testSnapshotNarrowing() throws Exception {
+		File junitSrcArchive= JavaTestPlugin.getDefault().getFileInPlugin(JavaProjectHelper.JUNIT_SRC_381);
+		assertTrue("Junit source", junitSrcArchive != null && junitSrcArchive.exists());
+		JavaProjectHelper.addSourceContainerWithImport(fJProject2, "src", junitSrcArchive, JavaProjectHelper.JUNIT_SRC_ENCODING);
+		IPackageFragmentRoot root1= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+		IPackageFragment pack1= root1.createPackageFragment("com.oti", true, null);
+		pack1.getCompilationUnit("V.java").createType("public class V {\n static class VInner {\n}\n}\n", null, true, null);
+		pack1.getCompilationUnit("VectorTestHelper.java").createType("public interface VectorTestHelper {\n}\n", null, true, null);
+
+		ArrayList<TypeNameMatch> allTypes= new ArrayList<>();
+		new SearchEngine().searchAllTypeNames(null, SearchPattern.R_EXACT_MATCH, null, SearchPattern.R_PREFIX_MATCH, IJavaSearchConstants.TYPE,
+				SearchEngine.createWorkspaceScope(), new TypeNameMatchCollector(allTypes), IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, null);
+
+		TypeNameSnapshot snapshot= TypeNameSnapshot.getWorkspaceSnapshot(null);
+		String[] patterns= {
+				// prefix
+				"V", "vec", "Vector", "junit.framework.A",
+				// camel case
+				"VT", "VTH", "NPE", "TeCa",
+				// pattern
+				"*Error", "Ve?tor", "*test*", "java.util.*Map",
+				// exact
+				"Vector<", "Void "
+		};
+		for (int i= 0; i < patterns.length; i++) {
+			TypeInfoFilter filter= new TypeInfoFilter(patterns[i], SearchEngine.createWorkspaceScope(), IJavaSearchConstants.TYPE, null);
+			List<String> expected= getMatchingNames(filter, allTypes);
+			assertFalse(patterns[i], expected.isEmpty());
+
+			ArrayList<TypeNameMatch> candidates= new ArrayList<>();
+			snapshot.search(filter, new TypeNameMatchCollector(candidates), null);
+			assertEquals(patterns[i], expected, getMatchingNames(filter, candidates));
+		}
+	}
+
+	public void testSnapshotUpdate() throws Exception {
+		IPackageFragmentRoot root1= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+		IPackageFragment pack1= root1.createPackageFragment("com.oti", true, null);
+		ICompilationUnit cu1= pack1.createCompilationUnit("SnapshotA.java", "package com.oti;\npublic class SnapshotA {\n}\n", true, null);
+		TypeNameSnapshot.getWorkspaceSnapshot(null);
+
+		// rename a type, add a compilation unit and a package
+		cu1.getBuffer().setContents("package com.oti;\npublic class SnapshotB {\n class SnapshotInner {\n}\n}\n");
+		cu1.save(null, true);
+		pack1.createCompilationUnit("SnapshotC.java", "package com.oti;\npublic class SnapshotC {\n}\n", true, null);
+		IPackageFragment pack2= root1.createPackageFragment("com.oti.snapshot", true, null);
+		pack2.createCompilationUnit("SnapshotD.java", "package com.oti.snapshot;\npublic class SnapshotD {\n}\n", true, null);
+
+		TypeInfoFilter filter= new TypeInfoFilter("com.oti.Snapshot", SearchEngine.createWorkspaceScope(), IJavaSearchConstants.TYPE, null);
+		ArrayList<TypeNameMatch> candidates= new ArrayList<>();
+		TypeNameSnapshot.getWorkspaceSnapshot(null).search(filter, new TypeNameMatchCollector(candidates), null);
+		List<String> names= getMatchingNames(filter, candidates);
+		assertEquals("[com.oti.SnapshotB, com.oti.SnapshotB.SnapshotInner, com.oti.SnapshotC, com.oti.snapshot.SnapshotD]", names.toString());
+
+		// remove the package
+		pack2.delete(true, null);
+		candidates.clear();
+		TypeNameSnapshot.getWorkspaceSnapshot(null).search(filter, new TypeNameMatchCollector(candidates), null);
+		names= getMatchingNames(filter, candidates);
+		assertEquals("[com.oti.SnapshotB, com.oti.SnapshotB.SnapshotInner, com.oti.SnapshotC]", names.toString());
+	}
+
+	private static List<String> getMatchingNames(TypeInfoFilter filter, List<TypeNameMatch> types) {
+		List<String> names= new ArrayList<>();
+		for (int i= 0; i < types.size(); i++) {
+			TypeNameMatch type= types.get(i);
+			if (filter.matchesHistoryElement(type))
+				names.add(type.getFullyQualifiedName());
+		}
+		Collections.sort(names);
+		return names;
+	}
 }
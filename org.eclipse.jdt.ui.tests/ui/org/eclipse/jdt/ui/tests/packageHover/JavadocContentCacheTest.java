@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.ui.tests.packageHover;
+
+import java.io.File;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.eclipse.jdt.testplugin.JavaProjectHelper;
+
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+
+import org.eclipse.jdt.internal.ui.text.javadoc.JavadocContentCache;
+
+/**
+ * Tests for the cache of rendered Javadoc.
+ *
+ * @since 3.14
+ */
+public class JavadocContentCacheTest extends TestCase {
+
+	/** Must match the number of entries the cache keeps in memory */
+	private static final int MAX_MEMORY_ENTRIES= 200;
+
+	private IJavaProject fJProject1;
+
+	private File fCacheDir;
+
+	public JavadocContentCacheTest(String name) {
+		super(name);
+	}
+
+	public static Test suite() {
+		return new TestSuite(JavadocContentCacheTest.class);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		fJProject1= JavaProjectHelper.createJavaProject("TestProject1", "bin");
+		assertNotNull("rt not found", JavaProjectHelper.addRTJar(fJProject1));
+		fCacheDir= File.createTempFile("javadoc-cache", "");
+		fCacheDir.delete();
+		assertTrue(fCacheDir.mkdir());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		JavaProjectHelper.delete(fJProject1);
+		File[] files= fCacheDir.listFiles();
+		if (files != null) {
+			for (int i= 0; i < files.length; i++)
+				files[i].delete();
+		}
+		fCacheDir.delete();
+	}
+
+	public void testKey() throws Exception {
+		IType type= fJProject1.findType("java.lang.String");
+		String key= JavadocContentCache.getKey(type, true);
+		assertNotNull(key);
+		assertTrue(key, key.startsWith(type.getHandleIdentifier() + '|'));
+		assertEquals(key, JavadocContentCache.getKey(type, true));
+		assertFalse(key.equals(JavadocContentCache.getKey(type, false)));
+
+		IField field= type.getField("CASE_INSENSITIVE_ORDER");
+		assertNotNull(JavadocContentCache.getKey(field, true));
+		assertFalse(key.equals(JavadocContentCache.getKey(field, true)));
+	}
+
+	public void testNoKeyForSource() throws Exception {
+		IPackageFragmentRoot sourceFolder= JavaProjectHelper.addSourceContainer(fJProject1, "src");
+		IPackageFragment pack= sourceFolder.createPackageFragment("p", false, null);
+		ICompilationUnit cu= pack.createCompilationUnit("A.java", "package p;\n/** A */\npublic class A {\n}\n", false, null);
+
+		assertNull(JavadocContentCache.getKey(cu.getType("A"), true));
+	}
+
+	public void testNoKeyForInheritedMethodJavadoc() throws Exception {
+		IType type= fJProject1.findType("java.lang.String");
+		IMethod method= type.getMethod("toString", new String[0]);
+		assertTrue(method.exists());
+		assertNull(JavadocContentCache.getKey(method, true));
+		assertNull(JavadocContentCache.getKey(method, false));
+
+		IMethod constructor= type.getMethod("String", new String[0]);
+		assertTrue(constructor.exists());
+		assertNotNull(JavadocContentCache.getKey(constructor, true));
+	}
+
+	public void testLeastRecentlyUsedEntriesAreDropped() throws Exception {
+		JavadocContentCache cache= new JavadocContentCache(null);
+		for (int i= 0; i < MAX_MEMORY_ENTRIES; i++) {
+			cache.put("key" + i, "content" + i);
+		}
+		// use the oldest entry, so that the second oldest one is dropped
+		assertEquals("content0", cache.get("key0").getContent());
+		cache.put("key" + MAX_MEMORY_ENTRIES, "content" + MAX_MEMORY_ENTRIES);
+
+		assertNull(cache.get("key1"));
+		assertEquals("content0", cache.get("key0").getContent());
+		assertEquals("content2", cache.get("key2").getContent());
+		assertEquals("content" + MAX_MEMORY_ENTRIES, cache.get("key" + MAX_MEMORY_ENTRIES).getContent());
+	}
+
+	public void testNoJavadocIsRemembered() throws Exception {
+		JavadocContentCache cache= new JavadocContentCache(null);
+		cache.put("key", null);
+		JavadocContentCache.CachedContent cached= cache.get("key");
+		assertNotNull(cached);
+		assertNull(cached.getContent());
+	}
+
+	public void testDiskRoundTrip() throws Exception {
+		String html= "<p>Javadoc with non-ASCII characters: \u00e4\u00f6\u00fc \u20ac</p>";
+		JavadocContentCache cache= new JavadocContentCache(fCacheDir);
+		cache.put("key", html);
+		cache.put("no javadoc", null);
+
+		JavadocContentCache restored= new JavadocContentCache(fCacheDir);
+		JavadocContentCache.CachedContent cached= restored.get("key");
+		assertNotNull(cached);
+		assertEquals(html, cached.getContent());
+		// elements without Javadoc are only remembered in memory
+		assertNull(restored.get("no javadoc"));
+		assertNull(restored.get("other key"));
+	}
+}
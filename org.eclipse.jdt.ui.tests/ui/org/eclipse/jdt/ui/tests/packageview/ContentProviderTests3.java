@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 package org.eclipse.jdt.ui.tests.packageview;
 
 import java.io.File;
+import java.util.Arrays;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -27,7 +28,10 @@ import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceDescription;
 import org.eclipse.core.resources.ResourcesPlugin;
 
+import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.jface.viewers.TreeViewer;
 
 import org.eclipse.ui.IViewPart;
 import org.eclipse.ui.IWorkbench;
@@ -42,7 +46,9 @@ import org.eclipse.jdt.core.IJavaElementDelta;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
 
+import org.eclipse.jdt.internal.ui.packageview.PackageExplorerContentProvider;
 import org.eclipse.jdt.internal.ui.util.CoreUtility;
 
 
@@ -276,6 +282,83 @@ public class ContentProviderTests3 extends TestCase {
 		assertEquals("No refreshes", 0, fMyPart.getRefreshedObject().size()); //$NON-NLS-1$
 	}
 
+	public void testRefreshBurstOfParentAndChild() throws Exception {
+		IPackageFragment test= fRoot1.createPackageFragment("test", true, null); //$NON-NLS-1$
+		TreeViewer viewer= setUpViewer();
+		Object[] expandedElements= viewer.getExpandedElements();
+		IStructuredSelection selection= (IStructuredSelection) viewer.getSelection();
+
+		//send a delta refreshing the parent of pack6 and a delta refreshing the source folder
+		IJavaElementDelta childDelta= TestDelta.createCUDelta(new ICompilationUnit[] { fCU2, fCU3 }, fPack6, IJavaElementDelta.REMOVED);
+		IJavaElementDelta parentDelta= TestDelta.createDelta(test, IJavaElementDelta.ADDED);
+		fireInBackground(new IJavaElementDelta[] { childDelta, parentDelta });
+
+		((PackageExplorerContentProvider) fProvider).runPendingUpdates();
+
+		// the refresh of the child is covered by the refresh of the source folder
+		assertEquals("One refresh", Arrays.asList(new Object[] { fRoot1 }), fMyPart.getRefreshedObject()); //$NON-NLS-1$
+		assertTrue("Expanded elements lost", compareArrays(viewer.getExpandedElements(), expandedElements)); //$NON-NLS-1$
+		assertEquals("Selection lost", selection.toList(), ((IStructuredSelection) viewer.getSelection()).toList()); //$NON-NLS-1$
+	}
+
+	public void testRefreshAllAfterTooManyUpdates() throws Exception {
+		TreeViewer viewer= setUpViewer();
+		Object[] expandedElements= viewer.getExpandedElements();
+		IStructuredSelection selection= (IStructuredSelection) viewer.getSelection();
+
+		//send more deltas than the content provider keeps as pending updates
+		IJavaElementDelta[] deltas= new IJavaElementDelta[1001];
+		for (int i= 0; i < deltas.length; i++) {
+			deltas[i]= TestDelta.createCUDelta(new ICompilationUnit[] { fCU2, fCU3 }, fPack6, IJavaElementDelta.REMOVED);
+		}
+		fireInBackground(deltas);
+
+		((PackageExplorerContentProvider) fProvider).runPendingUpdates();
+
+		// the whole viewer is refreshed once instead of running the single updates
+		assertEquals("One refresh", Arrays.asList(new Object[] { viewer.getInput() }), fMyPart.getRefreshedObject()); //$NON-NLS-1$
+		assertTrue("Expanded elements lost", compareArrays(viewer.getExpandedElements(), expandedElements)); //$NON-NLS-1$
+		assertEquals("Selection lost", selection.toList(), ((IStructuredSelection) viewer.getSelection()).toList()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Makes the mock view show the Java model with pack6 expanded and selected.
+	 *
+	 * @return the viewer of the mock view
+	 */
+	private TreeViewer setUpViewer() {
+		fMyPart.setUpdateViewer(true);
+		TreeViewer viewer= fMyPart.getTreeViewer();
+		viewer.setInput(JavaCore.create(fWorkspace.getRoot()));
+		viewer.setExpandedElements(new Object[] { fJProject2, fRoot1, fPack3 });
+		viewer.setSelection(new StructuredSelection(fPack6), true);
+		assertEquals("pack6 not selected", 1, ((IStructuredSelection) viewer.getSelection()).size()); //$NON-NLS-1$
+		fMyPart.clear();
+		return viewer;
+	}
+
+	/**
+	 * Sends the given deltas to the content provider from a thread other than the UI thread, so
+	 * that the resulting updates are queued as pending updates.
+	 *
+	 * @param deltas the deltas to send
+	 * @throws InterruptedException if interrupted while waiting for the thread
+	 */
+	private void fireInBackground(final IJavaElementDelta[] deltas) throws InterruptedException {
+		final IElementChangedListener listener= (IElementChangedListener) fProvider;
+		Thread thread= new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for (int i= 0; i < deltas.length; i++) {
+					listener.elementChanged(new ElementChangedEvent(deltas[i], ElementChangedEvent.POST_CHANGE));
+				}
+			}
+		});
+		thread.start();
+		thread.join();
+		assertTrue("No refresh expected before the pending updates run", fMyPart.getRefreshedObject().isEmpty()); //$NON-NLS-1$
+	}
+
 
 	/*
 	 * @see TestCase#setUp()
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -41,6 +41,7 @@ public class MockPluginView extends PackageExplorerPart {
 
 	private boolean fRemoveHappened;
 	private boolean fAddHappened;
+	private boolean fUpdateViewer;
 
 	private final List<Object> fRefreshedObjects;
 	private final List<Object> fRemovedObjects;
@@ -114,18 +115,24 @@ public class MockPluginView extends PackageExplorerPart {
 		public void refresh(Object object){
 			fRefreshHappened= true;
 			fRefreshedObjects.add(object);
+			if (fUpdateViewer)
+				super.refresh(object);
 		}
 
 		@Override
 		public void refresh(final Object element, final boolean updateLabels) {
 			fRefreshHappened= true;
 			fRefreshedObjects.add(element);
+			if (fUpdateViewer)
+				super.refresh(element, updateLabels);
 		}
 
 		@Override
 		public void remove(Object object) {
 			fRemoveHappened= true;
 			fRemovedObjects.add(object);
+			if (fUpdateViewer)
+				super.remove(object);
 		}
 
 		@Override
@@ -133,10 +140,14 @@ public class MockPluginView extends PackageExplorerPart {
 			fAddHappened= true;
 			fAddedObject= object;
 			fAddedParentObject= parentObject;
+			if (fUpdateViewer)
+				super.add(parentObject, object);
 		}
 		
 		@Override
 		public Widget[] testFindItems(Object element) {
+			if (fUpdateViewer)
+				return super.testFindItems(element);
 			return new Widget[1]; // for https://bugs.eclipse.org/311212
 		}
 	}
@@ -211,6 +222,16 @@ public class MockPluginView extends PackageExplorerPart {
 		JavaPlugin.getDefault().getPreferenceStore().setValue(PreferenceConstants.APPEARANCE_FOLD_PACKAGES_IN_PACKAGE_EXPLORER, fold);
 	}
 
+	/**
+	 * Sets whether the viewer is updated in addition to recording the updates. If not set, the
+	 * viewer only records the updates and does not create any items.
+	 *
+	 * @param update <code>true</code> to update the viewer, <code>false</code> otherwise
+	 */
+	public void setUpdateViewer(boolean update) {
+		fUpdateViewer= update;
+	}
+
 	/**
 	 *
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -74,6 +74,7 @@ import org.eclipse.jdt.internal.corext.refactoring.changes.MultiStateCompilation
 import org.eclipse.jdt.internal.corext.refactoring.util.RefactoringASTParser;
 import org.eclipse.jdt.internal.corext.refactoring.util.TextEditUtil;
 import org.eclipse.jdt.internal.corext.util.Messages;
+import org.eclipse.jdt.internal.corext.util.TypeNameMatchIndex;
 
 import org.eclipse.jdt.ui.JavaElementLabels;
 import org.eclipse.jdt.ui.cleanup.CleanUpContext;
@@ -85,6 +86,7 @@ import org.eclipse.jdt.ui.text.java.IProblemLocation;
 import org.eclipse.jdt.internal.ui.IJavaStatusConstants;
 import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.fix.IMultiFix.MultiFixContext;
+import org.eclipse.jdt.internal.ui.fix.ImportsCleanUp;
 import org.eclipse.jdt.internal.ui.fix.MapCleanUpOptions;
 import org.eclipse.jdt.internal.corext.dom.IASTSharedValues;
 import org.eclipse.jdt.internal.ui.refactoring.IScheduledRefactoring;
@@ -513,6 +515,13 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 	 */
 	private static final int SLOW_CLEAN_UP_THRESHOLD= 2000;
 
+	/**
+	 * Number of compilation units of a project from which on organize imports resolves type names
+	 * against a {@link TypeNameMatchIndex} of the project instead of searching them for each
+	 * compilation unit.
+	 */
+	private static final int TYPE_NAME_INDEX_THRESHOLD= 20;
+
 	private final List<ICleanUp> fCleanUps;
 	private final Hashtable<IJavaProject, List<CleanUpTarget>> fProjects;
 	private Change fChange;
@@ -653,18 +662,26 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 						return result;
 				}
 
-				result.merge(checkPreConditions(project, targets, new SubProgressMonitor(pm, 3 * cleanUps.length)));
-				if (result.hasFatalError())
-					return result;
+				TypeNameMatchIndex typeNameIndex= targets.length >= TYPE_NAME_INDEX_THRESHOLD ? createTypeNameIndex(cleanUps) : null;
+				try {
+					result.merge(checkPreConditions(project, targets, new SubProgressMonitor(pm, 3 * cleanUps.length)));
+					if (result.hasFatalError())
+						return result;
 
-				Change[] changes= cleanUpProject(project, targets, cleanUps, pm);
+					Change[] changes= cleanUpProject(project, targets, cleanUps, pm);
 
-				result.merge(checkPostConditions(new SubProgressMonitor(pm, cleanUps.length)));
-				if (result.hasFatalError())
-					return result;
+					result.merge(checkPostConditions(new SubProgressMonitor(pm, cleanUps.length)));
+					if (result.hasFatalError())
+						return result;
 
-				for (int i= 0; i < changes.length; i++) {
-					change.add(changes[i]);
+					for (int i= 0; i < changes.length; i++) {
+						change.add(changes[i]);
+					}
+				} finally {
+					if (typeNameIndex != null) {
+						setTypeNameIndex(cleanUps, null);
+						typeNameIndex.dispose();
+					}
 				}
 			}
 			fChange= change;
@@ -679,6 +696,31 @@ public class CleanUpRefactoring extends Refactoring implements IScheduledRefacto
 		return result;
 	}
 
+	/**
+	 * Creates a type name index for the organize imports clean ups of a project and passes it to
+	 * them. The caller must dispose the index.
+	 *
+	 * @param cleanUps the clean ups
+	 * @return the index, or <code>null</code> if none of the clean ups organizes imports
+	 */
+	private static TypeNameMatchIndex createTypeNameIndex(ICleanUp[] cleanUps) {
+		for (int i= 0; i < cleanUps.length; i++) {
+			if (cleanUps[i] instanceof ImportsCleanUp) {
+				TypeNameMatchIndex typeNameIndex= new TypeNameMatchIndex();
+				setTypeNameIndex(cleanUps, typeNameIndex);
+				return typeNameIndex;
+			}
+		}
+		return null;
+	}
+
+	private static void setTypeNameIndex(ICleanUp[] cleanUps, TypeNameMatchIndex typeNameIndex) {
+		for (int i= 0; i < cleanUps.length; i++) {
+			if (cleanUps[i] instanceof ImportsCleanUp)
+				((ImportsCleanUp) cleanUps[i]).setTypeNameMatchIndex(typeNameIndex);
+		}
+	}
+
 	private void findFilesToBeModified(CompositeChange change, List<IResource> result) throws JavaModelException {
 		Change[] children= change.getChildren();
 		for (int i= 0; i < children.length; i++) {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,6 +12,7 @@ package org.eclipse.jdt.internal.corext.fix;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Hashtable;
@@ -25,6 +26,7 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
+import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IncrementalProjectBuilder;
 
 import org.eclipse.ltk.core.refactoring.RefactoringStatus;
@@ -115,23 +117,30 @@ public class PotentialProgrammingProblemsFix extends CompilationUnitRewriteOpera
 				ASTParser parser= ASTParser.newParser(IASTSharedValues.SHARED_AST_LEVEL);
 				parser.setProject(fProject);
 				IBinding[] bindings= parser.createBindings(types, new SubProgressMonitor(monitor, 1));
+				ITypeBinding[] typeBindings= new ITypeBinding[bindings.length];
+				int count= 0;
 				for (int i= 0; i < bindings.length; i++) {
-					IBinding curr= bindings[i];
-					if (curr instanceof ITypeBinding) {
-						ITypeBinding typeBinding= (ITypeBinding) curr;
-						try {
-							Long id= SerialVersionHashOperation.calculateSerialVersionId(typeBinding, new SubProgressMonitor(monitor, 1));
-							if (id != null) {
-								setSerialVersionId(typeBinding, id);
-							} else {
-							   	result.addWarning(Messages.format(FixMessages.PotentialProgrammingProblemsFix_calculatingUIDFailed_unknown, BasicElementLabels.getJavaElementName(typeBinding.getName())));
-							}
-						} catch (IOException e) {
-						   	result.addWarning(Messages.format(FixMessages.PotentialProgrammingProblemsFix_calculatingUIDFailed_exception, new String[] { BasicElementLabels.getJavaElementName(typeBinding.getName()), e.getLocalizedMessage()}), JavaStatusContext.create(types[i]));
-				        } catch (CoreException e) {
-						   	result.addWarning(Messages.format(FixMessages.PotentialProgrammingProblemsFix_calculatingUIDFailed_exception, new String[] { BasicElementLabels.getJavaElementName(typeBinding.getName()), e.getLocalizedMessage()}), JavaStatusContext.create(types[i]));
-				        }
-					}
+					if (bindings[i] instanceof ITypeBinding)
+						typeBindings[count++]= (ITypeBinding) bindings[i];
+				}
+				typeBindings= Arrays.copyOf(typeBindings, count);
+				// locate all class files in one pass instead of scanning the output folder per type
+				IFile[] classfiles= SerialVersionHashOperation.getClassfiles(typeBindings);
+				for (int i= 0; i < typeBindings.length; i++) {
+					ITypeBinding typeBinding= typeBindings[i];
+					try {
+						Long id= classfiles[i] != null ? SerialVersionHashOperation.calculateSerialVersionId(classfiles[i]) : null;
+						if (id != null) {
+							setSerialVersionId(typeBinding, id);
+						} else {
+						   	result.addWarning(Messages.format(FixMessages.PotentialProgrammingProblemsFix_calculatingUIDFailed_unknown, BasicElementLabels.getJavaElementName(typeBinding.getName())));
+						}
+					} catch (IOException e) {
+					   	result.addWarning(Messages.format(FixMessages.PotentialProgrammingProblemsFix_calculatingUIDFailed_exception, new String[] { BasicElementLabels.getJavaElementName(typeBinding.getName()), e.getLocalizedMessage()}), JavaStatusContext.create((IType) typeBinding.getJavaElement()));
+			        } catch (CoreException e) {
+					   	result.addWarning(Messages.format(FixMessages.PotentialProgrammingProblemsFix_calculatingUIDFailed_exception, new String[] { BasicElementLabels.getJavaElementName(typeBinding.getName()), e.getLocalizedMessage()}), JavaStatusContext.create((IType) typeBinding.getJavaElement()));
+			        }
+					monitor.worked(1);
 				}
 			} finally {
 				monitor.done();
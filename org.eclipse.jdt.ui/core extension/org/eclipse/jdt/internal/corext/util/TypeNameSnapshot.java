@@ -0,0 +1,532 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.corext.util;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IPackageFragment;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.search.IJavaSearchConstants;
+import org.eclipse.jdt.core.search.IJavaSearchScope;
+import org.eclipse.jdt.core.search.SearchEngine;
+import org.eclipse.jdt.core.search.SearchPattern;
+import org.eclipse.jdt.core.search.TypeNameMatch;
+import org.eclipse.jdt.core.search.TypeNameMatchRequestor;
+
+import org.eclipse.jdt.internal.corext.CorextMessages;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * A snapshot of all types in the workspace scope, used by the Open Type dialog to filter the
+ * types in memory on each change of the pattern instead of searching the index again.
+ * <p>
+ * The types are sorted by their lower case simple name, which is kept in a separate
+ * <code>char[][]</code> column, so that the types matching the literal prefix of a pattern can be
+ * found by binary search. The snapshot is held by a soft reference.
+ * </p>
+ * <p>
+ * The snapshot is built by a background job that is not cancelled when a search that waits for
+ * it is cancelled, so that typing in the dialog does not restart the build. Java element deltas
+ * that add, remove or change types in compilation units or packages of source folders are
+ * recorded and applied to the snapshot on its next use, by replacing the types of the affected
+ * elements. Other changes, e.g. of the classpath or of archives, discard the snapshot.
+ * </p>
+ *
+ * @since 3.14
+ */
+public final class TypeNameSnapshot {
+
+	private static final int CANCEL_CHECK_INTERVAL= 1000;
+
+	/** Interval in milliseconds in which a waiting search checks its progress monitor */
+	private static final long WAIT_INTERVAL= 100;
+
+	/** Flags of changed projects and package fragment roots that discard the snapshot */
+	private static final int DISCARDING_FLAGS= IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED
+			| IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED
+			| IJavaElementDelta.F_OPENED | IJavaElementDelta.F_CLOSED;
+
+	/**
+	 * Job that builds the snapshot and remembers the result for the searches waiting for it.
+	 */
+	private static final class BuildJob extends Job {
+
+		private final int fModificationCount;
+
+		private boolean fDone= false;
+		private TypeNameSnapshot fResult;
+		private JavaModelException fException;
+
+		BuildJob(int modificationCount) {
+			super(CorextMessages.TypeNameSnapshot_build_job);
+			fModificationCount= modificationCount;
+			setSystem(true);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			TypeNameSnapshot snapshot= null;
+			JavaModelException exception= null;
+			try {
+				snapshot= build(monitor);
+			} catch (JavaModelException e) {
+				exception= e;
+			} catch (OperationCanceledException e) {
+				// the job has been cancelled, e.g. on shutdown
+			}
+			synchronized (TypeNameSnapshot.class) {
+				if (fgBuildJob == this)
+					fgBuildJob= null;
+				// do not keep a snapshot that has been discarded while it was built
+				if (snapshot != null && fModificationCount == fgModificationCount)
+					fgSnapshot= new SoftReference<>(snapshot);
+			}
+			synchronized (this) {
+				fResult= snapshot;
+				fException= exception;
+				fDone= true;
+				notifyAll();
+			}
+			return snapshot != null || exception != null ? Status.OK_STATUS : Status.CANCEL_STATUS;
+		}
+
+		/**
+		 * Waits until the snapshot has been built.
+		 *
+		 * @param monitor the progress monitor of the waiting search, can be <code>null</code>
+		 * @return the snapshot
+		 * @throws JavaModelException if the search for the types failed
+		 * @throws OperationCanceledException if the waiting search or the job has been cancelled
+		 */
+		synchronized TypeNameSnapshot getSnapshot(IProgressMonitor monitor) throws JavaModelException {
+			while (!fDone) {
+				if (monitor != null && monitor.isCanceled())
+					throw new OperationCanceledException();
+				try {
+					wait(WAIT_INTERVAL);
+				} catch (InterruptedException e) {
+					throw new OperationCanceledException();
+				}
+			}
+			if (fException != null)
+				throw fException;
+			if (fResult == null)
+				throw new OperationCanceledException();
+			return fResult;
+		}
+	}
+
+	private static final IElementChangedListener fgDeltaListener= new IElementChangedListener() {
+		@Override
+		public void elementChanged(ElementChangedEvent event) {
+			IJavaElementDelta delta= event.getDelta();
+			if (!TypeNameMatchIndex.affectsTypeNames(delta))
+				return;
+			Set<IJavaElement> changedElements= new HashSet<>();
+			boolean canUpdate= collectChangedElements(delta, changedElements);
+			synchronized (TypeNameSnapshot.class) {
+				if (canUpdate && (fgBuildJob != null || getCachedSnapshot() != null))
+					fgChangedElements.addAll(changedElements);
+				else
+					discard();
+			}
+		}
+	};
+
+	private static SoftReference<TypeNameSnapshot> fgSnapshot;
+
+	/** The job building the snapshot, or <code>null</code> if no snapshot is being built */
+	private static BuildJob fgBuildJob;
+
+	private static boolean fgListening= false;
+
+	/** Incremented on every discard, to detect deltas that arrive while a snapshot is built or updated */
+	private static int fgModificationCount= 0;
+
+	/** The compilation units and packages whose types have changed since the snapshot was built */
+	private static final Set<IJavaElement> fgChangedElements= new HashSet<>();
+
+	/** Serializes the updates of the snapshot */
+	private static final Object fgUpdateLock= new Object();
+
+	/** The types, sorted by lower case simple name */
+	private final TypeNameMatch[] fTypes;
+
+	/** The lower case simple names of {@link #fTypes} */
+	private final char[][] fNames;
+
+	private TypeNameSnapshot(TypeNameMatch[] types, char[][] names) {
+		fTypes= types;
+		fNames= names;
+	}
+
+	/**
+	 * Returns whether searches in the given scope can be answered from a snapshot.
+	 *
+	 * @param scope the search scope
+	 * @return <code>true</code> if the scope is the workspace scope
+	 */
+	public static boolean isSnapshotScope(IJavaSearchScope scope) {
+		return scope.equals(SearchEngine.createWorkspaceScope());
+	}
+
+	/**
+	 * Returns the snapshot of the types in the workspace scope. If there is no snapshot yet, waits
+	 * until the background job building it is done. Changes recorded since the last call are
+	 * applied to the snapshot.
+	 *
+	 * @param monitor the progress monitor, only used to cancel waiting, can be <code>null</code>
+	 * @return the snapshot
+	 * @throws JavaModelException if the search fails
+	 * @throws OperationCanceledException if the monitor is cancelled while waiting
+	 */
+	public static TypeNameSnapshot getWorkspaceSnapshot(IProgressMonitor monitor) throws JavaModelException {
+		while (true) {
+			BuildJob job;
+			synchronized (TypeNameSnapshot.class) {
+				TypeNameSnapshot snapshot= getCachedSnapshot();
+				if (snapshot != null) {
+					if (fgChangedElements.isEmpty())
+						return snapshot;
+					job= null;
+				} else {
+					if (fgBuildJob == null) {
+						if (!fgListening) {
+							JavaCore.addElementChangedListener(fgDeltaListener, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+							fgListening= true;
+						}
+						fgChangedElements.clear();
+						fgBuildJob= new BuildJob(fgModificationCount);
+						fgBuildJob.schedule();
+					}
+					job= fgBuildJob;
+				}
+			}
+			if (job != null)
+				return job.getSnapshot(monitor);
+
+			TypeNameSnapshot snapshot= applyChanges();
+			if (snapshot != null)
+				return snapshot;
+		}
+	}
+
+	private static TypeNameSnapshot getCachedSnapshot() {
+		return fgSnapshot != null ? fgSnapshot.get() : null;
+	}
+
+	private static TypeNameSnapshot build(IProgressMonitor monitor) throws JavaModelException {
+		final List<TypeNameMatch> types= new ArrayList<>();
+		TypeNameMatchRequestor requestor= new TypeNameMatchRequestor() {
+			@Override
+			public void acceptTypeNameMatch(TypeNameMatch match) {
+				types.add(match);
+			}
+		};
+		new SearchEngine().searchAllTypeNames(null, SearchPattern.R_EXACT_MATCH, null, SearchPattern.R_PREFIX_MATCH, IJavaSearchConstants.TYPE,
+				SearchEngine.createWorkspaceScope(), requestor, IJavaSearchConstants.WAIT_UNTIL_READY_TO_SEARCH, monitor);
+		return create(types);
+	}
+
+	/**
+	 * Applies the recorded changes to the cached snapshot.
+	 *
+	 * @return the updated snapshot, or <code>null</code> if the snapshot has been discarded
+	 */
+	private static TypeNameSnapshot applyChanges() {
+		synchronized (fgUpdateLock) {
+			TypeNameSnapshot snapshot;
+			Set<IJavaElement> changedElements;
+			int modificationCount;
+			synchronized (TypeNameSnapshot.class) {
+				snapshot= getCachedSnapshot();
+				if (snapshot == null)
+					return null;
+				if (fgChangedElements.isEmpty())
+					return snapshot;
+				changedElements= new HashSet<>(fgChangedElements);
+				fgChangedElements.clear();
+				modificationCount= fgModificationCount;
+			}
+
+			TypeNameSnapshot updated= snapshot.update(changedElements);
+			synchronized (TypeNameSnapshot.class) {
+				if (modificationCount == fgModificationCount)
+					fgSnapshot= new SoftReference<>(updated);
+			}
+			return updated;
+		}
+	}
+
+	/**
+	 * Collects the compilation units and packages whose types are affected by the given delta.
+	 *
+	 * @param delta the delta
+	 * @param changedElements the set to add the elements to
+	 * @return <code>false</code> if the delta contains changes that cannot be applied to a
+	 *         snapshot
+	 */
+	private static boolean collectChangedElements(IJavaElementDelta delta, Set<IJavaElement> changedElements) {
+		IJavaElement element= delta.getElement();
+		int kind= delta.getKind();
+		switch (element.getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+				break;
+			case IJavaElement.JAVA_PROJECT:
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+				if (kind != IJavaElementDelta.CHANGED || (delta.getFlags() & DISCARDING_FLAGS) != 0)
+					return false;
+				break;
+			case IJavaElement.PACKAGE_FRAGMENT:
+				if (kind == IJavaElementDelta.CHANGED)
+					break;
+				if (!isInSourceFolder(element))
+					return false;
+				// the delta of an added or removed package does not contain its compilation units
+				changedElements.add(element);
+				return true;
+			case IJavaElement.COMPILATION_UNIT:
+				if (TypeNameMatchIndex.affectsTypeNames(delta))
+					changedElements.add(((ICompilationUnit) element).getPrimary());
+				return true;
+			case IJavaElement.CLASS_FILE:
+				return !TypeNameMatchIndex.affectsTypeNames(delta);
+			default:
+				return true;
+		}
+		IJavaElementDelta[] children= delta.getAffectedChildren();
+		for (int i= 0; i < children.length; i++) {
+			if (!collectChangedElements(children[i], changedElements))
+				return false;
+		}
+		return true;
+	}
+
+	private static boolean isInSourceFolder(IJavaElement element) {
+		IPackageFragmentRoot root= (IPackageFragmentRoot) element.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+		try {
+			return root != null && root.getKind() == IPackageFragmentRoot.K_SOURCE;
+		} catch (JavaModelException e) {
+			return false;
+		}
+	}
+
+	private static TypeNameSnapshot create(List<TypeNameMatch> matches) {
+		final int size= matches.size();
+		final char[][] names= new char[size][];
+		Integer[] order= new Integer[size];
+		for (int i= 0; i < size; i++) {
+			names[i]= toLowerCase(matches.get(i).getSimpleTypeName());
+			order[i]= Integer.valueOf(i);
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return compareNames(names[o1.intValue()], names[o2.intValue()]);
+			}
+		});
+		TypeNameMatch[] sortedTypes= new TypeNameMatch[size];
+		char[][] sortedNames= new char[size][];
+		for (int i= 0; i < size; i++) {
+			int index= order[i].intValue();
+			sortedTypes[i]= matches.get(index);
+			sortedNames[i]= names[index];
+		}
+		return new TypeNameSnapshot(sortedTypes, sortedNames);
+	}
+
+	/**
+	 * Returns a snapshot in which the types of the given compilation units and packages are
+	 * replaced by their current types.
+	 *
+	 * @param changedElements the changed compilation units and packages
+	 * @return the updated snapshot
+	 */
+	private TypeNameSnapshot update(Set<IJavaElement> changedElements) {
+		List<TypeNameMatch> addedTypes= new ArrayList<>();
+		for (IJavaElement element : changedElements) {
+			collectTypes(element, addedTypes);
+		}
+		TypeNameSnapshot added= create(addedTypes);
+
+		TypeNameMatch[] types= new TypeNameMatch[fTypes.length + added.fTypes.length];
+		char[][] names= new char[types.length][];
+		int count= 0;
+		int next= 0;
+		for (int i= 0; i < fTypes.length; i++) {
+			if (isContained(fTypes[i], changedElements))
+				continue;
+			while (next < added.fTypes.length && compareNames(added.fNames[next], fNames[i]) < 0) {
+				types[count]= added.fTypes[next];
+				names[count++]= added.fNames[next++];
+			}
+			types[count]= fTypes[i];
+			names[count++]= fNames[i];
+		}
+		while (next < added.fTypes.length) {
+			types[count]= added.fTypes[next];
+			names[count++]= added.fNames[next++];
+		}
+		return new TypeNameSnapshot(Arrays.copyOf(types, count), Arrays.copyOf(names, count));
+	}
+
+	private static void collectTypes(IJavaElement element, List<TypeNameMatch> types) {
+		try {
+			if (!element.exists())
+				return;
+			if (element instanceof ICompilationUnit) {
+				IType[] allTypes= ((ICompilationUnit) element).getAllTypes();
+				for (int i= 0; i < allTypes.length; i++) {
+					types.add(SearchEngine.createTypeNameMatch(allTypes[i], allTypes[i].getFlags()));
+				}
+			} else if (element instanceof IPackageFragment) {
+				ICompilationUnit[] units= ((IPackageFragment) element).getCompilationUnits();
+				for (int i= 0; i < units.length; i++) {
+					collectTypes(units[i], types);
+				}
+			}
+		} catch (JavaModelException e) {
+			JavaPlugin.log(e);
+		}
+	}
+
+	private static boolean isContained(TypeNameMatch match, Set<IJavaElement> elements) {
+		for (IJavaElement parent= match.getType().getParent(); parent != null; parent= parent.getParent()) {
+			if (elements.contains(parent))
+				return true;
+		}
+		return false;
+	}
+
+	private static void discard() {
+		fgModificationCount++;
+		fgSnapshot= null;
+		fgChangedElements.clear();
+		if (fgListening) {
+			JavaCore.removeElementChangedListener(fgDeltaListener);
+			fgListening= false;
+		}
+	}
+
+	private static char[] toLowerCase(String name) {
+		char[] chars= name.toCharArray();
+		for (int i= 0; i < chars.length; i++) {
+			chars[i]= Character.toLowerCase(chars[i]);
+		}
+		return chars;
+	}
+
+	private static int compareNames(char[] name1, char[] name2) {
+		int length= Math.min(name1.length, name2.length);
+		for (int i= 0; i < length; i++) {
+			if (name1[i] != name2[i])
+				return name1[i] - name2[i];
+		}
+		return name1.length - name2.length;
+	}
+
+	/**
+	 * Reports the types of this snapshot that may match the name pattern of the given filter. The
+	 * requestor is responsible for the actual matching.
+	 *
+	 * @param filter the filter of the Open Type dialog
+	 * @param requestor the requestor to report the candidates to
+	 * @param monitor the progress monitor, can be <code>null</code>
+	 */
+	public void search(TypeInfoFilter filter, TypeNameMatchRequestor requestor, IProgressMonitor monitor) {
+		char[] prefix= toLowerCase(getLiteralPrefix(filter));
+		int start= 0;
+		int end= fTypes.length;
+		if (prefix.length > 0) {
+			start= findFirst(prefix);
+			end= start;
+			while (end < fNames.length && startsWith(fNames[end], prefix))
+				end++;
+		}
+		for (int i= start; i < end; i++) {
+			if (monitor != null && i % CANCEL_CHECK_INTERVAL == 0 && monitor.isCanceled())
+				throw new OperationCanceledException();
+			requestor.acceptTypeNameMatch(fTypes[i]);
+		}
+	}
+
+	/**
+	 * Returns the part of the name pattern that all matching names start with, ignoring case.
+	 *
+	 * @param filter the filter
+	 * @return the literal prefix, can be empty
+	 */
+	private static String getLiteralPrefix(TypeInfoFilter filter) {
+		String pattern= filter.getNamePattern();
+		if (pattern.length() == 0)
+			return pattern;
+		switch (filter.getSearchFlags()) {
+			case SearchPattern.R_EXACT_MATCH:
+			case SearchPattern.R_PREFIX_MATCH:
+				return pattern;
+			case SearchPattern.R_CAMELCASE_MATCH:
+			case SearchPattern.R_CAMELCASE_SAME_PART_COUNT_MATCH:
+				// camel case matches and the prefix fallback share the first character
+				return pattern.substring(0, 1);
+			case SearchPattern.R_PATTERN_MATCH:
+				int index= 0;
+				while (index < pattern.length() && pattern.charAt(index) != '*' && pattern.charAt(index) != '?')
+					index++;
+				return pattern.substring(0, index);
+			default:
+				return ""; //$NON-NLS-1$
+		}
+	}
+
+	private int findFirst(char[] prefix) {
+		int low= 0;
+		int high= fNames.length;
+		while (low < high) {
+			int mid= (low + high) >>> 1;
+			if (compareNames(fNames[mid], prefix) < 0)
+				low= mid + 1;
+			else
+				high= mid;
+		}
+		return low;
+	}
+
+	private static boolean startsWith(char[] name, char[] prefix) {
+		if (name.length < prefix.length)
+			return false;
+		for (int i= 0; i < prefix.length; i++) {
+			if (name[i] != prefix[i])
+				return false;
+		}
+		return true;
+	}
+}
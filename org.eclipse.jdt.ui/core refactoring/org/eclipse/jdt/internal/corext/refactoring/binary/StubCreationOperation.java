@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -38,6 +38,9 @@ public class StubCreationOperation extends AbstractCodeCreationOperation {
 	/** Should stubs for private member be generated as well? */
 	protected final boolean fStubInvisible;
 
+	/** The stub creator, shared by all class files of this operation */
+	private StubCreator fStubCreator;
+
 	/**
 	 * Creates a new stub creation operation.
 	 *
@@ -92,7 +95,9 @@ public class StubCreationOperation extends AbstractCodeCreationOperation {
 				final IType type= ((IOrdinaryClassFile) file).getType();
 				if (type.isAnonymous() || type.isLocal() || type.isMember())
 					return;
-				String source= new StubCreator(fStubInvisible).createStub(type, subProgressMonitor);
+				if (fStubCreator == null)
+					fStubCreator= new StubCreator(fStubInvisible);
+				String source= fStubCreator.createStub(type, subProgressMonitor);
 				createCompilationUnit(parent, type.getElementName() + JavaModelUtil.DEFAULT_CU_SUFFIX, source, monitor);
 			}
 		} finally {
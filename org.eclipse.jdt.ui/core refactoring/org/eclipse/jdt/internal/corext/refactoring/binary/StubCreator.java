@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2017 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -486,11 +486,13 @@ public class StubCreator {
 		if (monitor == null)
 			monitor= new NullProgressMonitor();
 
-		fBuffer= new StringBuffer(2046);
+		// reuse the buffer when the creator is used for many types
+		if (fBuffer == null)
+			fBuffer= new StringBuffer(2046);
+		else
+			fBuffer.setLength(0);
 		appendTopLevelType(topLevelType, monitor);
-		String result= fBuffer.toString();
-		fBuffer= null;
-		return result;
+		return fBuffer.toString();
 	}
 
 }
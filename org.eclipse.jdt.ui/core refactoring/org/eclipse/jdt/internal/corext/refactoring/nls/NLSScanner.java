@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,11 +24,12 @@ import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
-import org.eclipse.jdt.core.ToolFactory;
 import org.eclipse.jdt.core.compiler.IScanner;
 import org.eclipse.jdt.core.compiler.ITerminalSymbols;
 import org.eclipse.jdt.core.compiler.InvalidInputException;
 
+import org.eclipse.jdt.internal.corext.dom.ScannerPool;
+
 
 public class NLSScanner {
 
@@ -45,16 +46,24 @@ public class NLSScanner {
 		if (javaProject != null) {
 			String complianceLevel= javaProject.getOption(JavaCore.COMPILER_COMPLIANCE, true);
 			String sourceLevel= javaProject.getOption(JavaCore.COMPILER_SOURCE, true);
-			scanner= ToolFactory.createScanner(true, true, true, sourceLevel, complianceLevel);
+			scanner= ScannerPool.acquire(true, true, true, sourceLevel, complianceLevel);
 		} else {
-			scanner= ToolFactory.createScanner(true, true, false, true);
+			scanner= ScannerPool.acquire(true, true, false, true);
+		}
+		try {
+			return scan(scanner, cu.getBuffer().getCharacters());
+		} finally {
+			ScannerPool.release(scanner);
 		}
-		return scan(scanner, cu.getBuffer().getCharacters());
 	}
 
 	public static NLSLine[] scan(String s) throws InvalidInputException, BadLocationException {
-		IScanner scanner= ToolFactory.createScanner(true, true, false, true);
-		return scan(scanner, s.toCharArray());
+		IScanner scanner= ScannerPool.acquire(true, true, false, true);
+		try {
+			return scan(scanner, s.toCharArray());
+		} finally {
+			ScannerPool.release(scanner);
+		}
 	}
 
 	private static NLSLine[] scan(IScanner scanner, char[] content) throws InvalidInputException, BadLocationException {
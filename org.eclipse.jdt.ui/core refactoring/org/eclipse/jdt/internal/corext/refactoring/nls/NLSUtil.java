@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -240,6 +240,8 @@ public class NLSUtil {
 	public static int getInsertionPosition(String key, List<String> keys) {
 		int result= 0;
 
+		// Collator.getInstance() creates a new collator on every call
+		Collator collator= Collator.getInstance();
 		int invertDistance= Integer.MIN_VALUE;
 		int i= 0;
 		for (Iterator<String> iterator= keys.iterator(); iterator.hasNext();) {
@@ -248,13 +250,13 @@ public class NLSUtil {
 			int currentInvertDistance= invertDistance(key, string);
 			if (currentInvertDistance > invertDistance) {
 				invertDistance= currentInvertDistance;
-				if (Collator.getInstance().compare(key, string) >= 0) {
+				if (collator.compare(key, string) >= 0) {
 					result= i;
 				} else {
 					result= i - 1;
 				}
 			} else if (currentInvertDistance == invertDistance) {
-				if (Collator.getInstance().compare(key, string) >= 0) {
+				if (collator.compare(key, string) >= 0) {
 					result= i;
 				}
 			}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,8 +14,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import com.ibm.icu.text.Collator;
 
@@ -38,8 +41,35 @@ import org.eclipse.jdt.internal.core.manipulation.util.BasicElementLabels;
 
 public class PropertyFileDocumentModel {
 
-	private List<KeyValuePairModell> fKeyValuePairs;
+	/**
+	 * Distance between the order numbers of two adjacent pairs after parsing or renumbering, see
+	 * {@link KeyValuePairModell#fOrder}.
+	 */
+	private static final long ORDER_GAP= 1L << 32;
+
+	/**
+	 * Maximal distance between the order number of an inserted pair and the one of its predecessor.
+	 * Pairs inserted one after another take little of the gap that remains before the next pair.
+	 */
+	private static final long ORDER_STEP= 1L << 16;
+
+	/**
+	 * The first pair in document order. The pairs are linked in document order and end with the
+	 * {@link LastKeyValuePair}.
+	 */
+	private KeyValuePairModell fFirst;
+	/**
+	 * The pairs by key. If a key occurs more than once, the first pair with that key in document
+	 * order is indexed.
+	 */
+	private Map<String, KeyValuePairModell> fKeyIndex;
+	/**
+	 * The pairs sorted by key in {@link String#compareTo(String) lexical order}. The keys that share
+	 * the longest prefix with a new key are next to the position of the new key in this map.
+	 */
+	private TreeMap<String, List<KeyValuePairModell>> fSortedKeys;
     private String fLineDelimiter;
+    private Collator fCollator;
 
     public PropertyFileDocumentModel(IDocument document) {
         parsePropertyDocument(document);
@@ -60,19 +90,12 @@ public class PropertyFileDocumentModel {
 	 * @return the pair with the key or <b>null</b> if no such pair.
 	 */
     public KeyValuePair getKeyValuePair(String key) {
-    	for (int i= 0; i < fKeyValuePairs.size(); i++) {
-            KeyValuePairModell keyValuePair = fKeyValuePairs.get(i);
-            if (keyValuePair.getKey().equals(key)) {
-            	return keyValuePair;
-            }
-    	}
-    	return null;
+    	return fKeyIndex.get(key);
     }
 
     private InsertEdit insert(KeyValuePair keyValuePair) {
         KeyValuePairModell keyValuePairModell = new KeyValuePairModell(keyValuePair);
-        int index = findInsertPosition(keyValuePairModell);
-        KeyValuePairModell insertHere = fKeyValuePairs.get(index);
+        KeyValuePairModell insertHere = findInsertPosition(keyValuePairModell.fKey);
         int offset = insertHere.fOffset;
 
         String extra= ""; //$NON-NLS-1$
@@ -80,15 +103,15 @@ public class PropertyFileDocumentModel {
         	extra= fLineDelimiter;
         	((LastKeyValuePair)insertHere).resetNeedsNewLine();
         	offset-= insertHere.fLeadingWhiteSpaces;
-        } else if (index > 0) {
-        	String beforeKey= fKeyValuePairs.get(index - 1).fKey;
+        } else if (insertHere.fPrevious != null) {
+        	String beforeKey= insertHere.fPrevious.fKey;
 			String afterKey= insertHere.fKey;
 			String key= keyValuePair.fKey;
 			int distBefore= NLSUtil.invertDistance(key, beforeKey);
 			int distAfter= NLSUtil.invertDistance(key, afterKey);
 			if (distBefore > distAfter) {
 				offset-= insertHere.fLeadingWhiteSpaces;
-			} else if (distBefore == distAfter && Collator.getInstance().compare(beforeKey, afterKey) < 0) {
+			} else if (distBefore == distAfter && getCollator().compare(beforeKey, afterKey) < 0) {
 				offset-= insertHere.fLeadingWhiteSpaces;
 			} else {
 				//insert it before afterKey -> move the leading white spaces to the inserted pair
@@ -100,10 +123,17 @@ public class PropertyFileDocumentModel {
         String text= extra + keyValuePairModell.getKeyValueText();
         keyValuePairModell.fOffset= offset;
         keyValuePairModell.fLength= text.length();
-        fKeyValuePairs.add(index, keyValuePairModell);
+        link(keyValuePairModell, insertHere);
+        addToIndex(keyValuePairModell);
 		return new InsertEdit(offset, text);
     }
 
+    private Collator getCollator() {
+    	if (fCollator == null)
+    		fCollator= Collator.getInstance();
+    	return fCollator;
+    }
+
     /**
      * Inserts the given key value pairs into this model at appropriate
      * positions. Records all required text changes in the given change
@@ -114,10 +144,11 @@ public class PropertyFileDocumentModel {
     public void insert(KeyValuePair[] keyValuePairs, TextChange change) {
 
         ArrayList<KeyValuePair> sorted= new ArrayList<>(Arrays.asList(keyValuePairs));
+        final Collator collator= getCollator();
         Collections.sort(sorted, new Comparator<KeyValuePair>() {
 			@Override
 			public int compare(KeyValuePair p1, KeyValuePair p2) {
-				return Collator.getInstance().compare(p1.fKey, p2.fKey);
+				return collator.compare(p1.fKey, p2.fKey);
 			}
         });
 
@@ -131,44 +162,172 @@ public class PropertyFileDocumentModel {
     }
 
     public DeleteEdit remove(String key) {
-    	for (Iterator<KeyValuePairModell> iter = fKeyValuePairs.iterator(); iter.hasNext();) {
-            KeyValuePairModell keyValuePair = iter.next();
-            if (keyValuePair.fKey.equals(key)) {
-            	return new DeleteEdit(keyValuePair.fOffset, keyValuePair.getLength());
-            }
-        }
+    	KeyValuePairModell keyValuePair= fKeyIndex.get(key);
+    	if (keyValuePair != null) {
+    		unlink(keyValuePair);
+    		removeFromIndex(keyValuePair);
+    		return new DeleteEdit(keyValuePair.fOffset, keyValuePair.getLength());
+    	}
         return null;
     }
 
     public ReplaceEdit replace(KeyValuePair toReplace, KeyValuePair replaceWith) {
-        for (Iterator<KeyValuePairModell> iter = fKeyValuePairs.iterator(); iter.hasNext();) {
-            KeyValuePairModell keyValuePair = iter.next();
-            if (keyValuePair.fKey.equals(toReplace.getKey())) {
-                String newText= new KeyValuePairModell(replaceWith).getKeyValueText();
-                return new ReplaceEdit(keyValuePair.fOffset, keyValuePair.getLength(), newText);
-            }
-        }
+    	KeyValuePairModell keyValuePair= fKeyIndex.get(toReplace.getKey());
+    	if (keyValuePair != null) {
+    		String newText= new KeyValuePairModell(replaceWith).getKeyValueText();
+    		return new ReplaceEdit(keyValuePair.fOffset, keyValuePair.getLength(), newText);
+    	}
         return null;
     }
 
-    private int findInsertPosition(KeyValuePairModell keyValuePair) {
-    	ArrayList<String> keys= new ArrayList<>();
-        for (int i= 0; i < fKeyValuePairs.size(); i++) {
-            KeyValuePairModell element = fKeyValuePairs.get(i);
-            if (! (element instanceof LastKeyValuePair))
-            	keys.add(element.getKey());
-        }
-        int insertIndex= NLSUtil.getInsertionPosition(keyValuePair.getKey(), keys);
+	/**
+	 * Finds the pair before which the given key is inserted. This is the position that
+	 * {@link NLSUtil#getInsertionPosition(String, List)} computes for the keys in document order:
+	 * next to the closest keys by {@link NLSUtil#invertDistance(String, String)}.
+	 * <p>
+	 * The closest keys share the longest prefix with the key, so only these keys and the prefixes of
+	 * the key are compared instead of all keys.
+	 * </p>
+	 *
+	 * @param key the key to insert
+	 * @return the pair before which the key is inserted
+	 */
+	private KeyValuePairModell findInsertPosition(String key) {
+		if (fSortedKeys.isEmpty())
+			return fFirst;
+
+		String lower= fSortedKeys.floorKey(key);
+		String higher= fSortedKeys.ceilingKey(key);
+		int prefixLength= Math.max(getCommonPrefixLength(key, lower), getCommonPrefixLength(key, higher));
+		String prefix= key.substring(0, prefixLength);
+
+		// the closest keys: keys that start with the longest common prefix, and prefixes of the key that are followed by a separator
+		List<String> candidates= new ArrayList<>();
+		for (Iterator<String> iter= fSortedKeys.tailMap(prefix, true).keySet().iterator(); iter.hasNext();) {
+			String candidate= iter.next();
+			if (!candidate.startsWith(prefix))
+				break;
+			candidates.add(candidate);
+		}
+		for (int i= 0; i < prefixLength; i++) {
+			String candidate= key.substring(0, i);
+			if (fSortedKeys.containsKey(candidate))
+				candidates.add(candidate);
+		}
 
-        if (insertIndex < fKeyValuePairs.size() - 1) {
-            insertIndex++;
-        }
+		int maxDistance= Integer.MIN_VALUE;
+		List<KeyValuePairModell> closest= new ArrayList<>();
+		for (int i= 0; i < candidates.size(); i++) {
+			String candidate= candidates.get(i);
+			int distance= NLSUtil.invertDistance(key, candidate);
+			if (distance > maxDistance) {
+				maxDistance= distance;
+				closest.clear();
+			}
+			if (distance == maxDistance)
+				closest.addAll(fSortedKeys.get(candidate));
+		}
 
-        return insertIndex;
-    }
+		// insert after the last closest pair that sorts before the key, or else before the first closest pair
+		Collections.sort(closest, new Comparator<KeyValuePairModell>() {
+			@Override
+			public int compare(KeyValuePairModell p1, KeyValuePairModell p2) {
+				return Long.compare(p2.fOrder, p1.fOrder);
+			}
+		});
+		Collator collator= getCollator();
+		for (int i= 0; i < closest.size(); i++) {
+			KeyValuePairModell pair= closest.get(i);
+			if (collator.compare(key, pair.fKey) >= 0)
+				return pair.fNext;
+		}
+		return closest.get(closest.size() - 1);
+	}
+
+	private static int getCommonPrefixLength(String key, String other) {
+		if (other == null)
+			return 0;
+		int length= Math.min(key.length(), other.length());
+		for (int i= 0; i < length; i++) {
+			if (key.charAt(i) != other.charAt(i))
+				return i;
+		}
+		return length;
+	}
+
+	/**
+	 * Links the given pair into the document order before the given pair.
+	 *
+	 * @param pair the pair to link
+	 * @param next the pair that follows the linked pair
+	 */
+	private void link(KeyValuePairModell pair, KeyValuePairModell next) {
+		KeyValuePairModell previous= next.fPrevious;
+		if (next.fOrder - getOrder(previous) < 2)
+			renumber(); // no order number left between the two pairs
+		long previousOrder= getOrder(previous);
+		pair.fOrder= previousOrder + Math.min((next.fOrder - previousOrder) / 2, ORDER_STEP);
+		pair.fPrevious= previous;
+		pair.fNext= next;
+		next.fPrevious= pair;
+		if (previous != null)
+			previous.fNext= pair;
+		else
+			fFirst= pair;
+	}
+
+	private static long getOrder(KeyValuePairModell pair) {
+		return pair != null ? pair.fOrder : 0;
+	}
+
+	private void unlink(KeyValuePairModell pair) {
+		if (pair.fPrevious != null)
+			pair.fPrevious.fNext= pair.fNext;
+		else
+			fFirst= pair.fNext;
+		pair.fNext.fPrevious= pair.fPrevious;
+	}
+
+	private void renumber() {
+		long order= ORDER_GAP;
+		for (KeyValuePairModell pair= fFirst; pair != null; pair= pair.fNext) {
+			pair.fOrder= order;
+			order+= ORDER_GAP;
+		}
+	}
+
+	private void addToIndex(KeyValuePairModell pair) {
+		KeyValuePairModell indexed= fKeyIndex.get(pair.fKey);
+		if (indexed == null || pair.fOrder < indexed.fOrder)
+			fKeyIndex.put(pair.fKey, pair);
+		List<KeyValuePairModell> pairs= fSortedKeys.get(pair.fKey);
+		if (pairs == null) {
+			pairs= new ArrayList<>(1);
+			fSortedKeys.put(pair.fKey, pairs);
+		}
+		pairs.add(pair);
+	}
+
+	private void removeFromIndex(KeyValuePairModell pair) {
+		List<KeyValuePairModell> pairs= fSortedKeys.get(pair.fKey);
+		pairs.remove(pair);
+		if (pairs.isEmpty()) {
+			fSortedKeys.remove(pair.fKey);
+			fKeyIndex.remove(pair.fKey);
+		} else if (fKeyIndex.get(pair.fKey) == pair) {
+			KeyValuePairModell first= pairs.get(0);
+			for (int i= 1; i < pairs.size(); i++) {
+				if (pairs.get(i).fOrder < first.fOrder)
+					first= pairs.get(i);
+			}
+			fKeyIndex.put(pair.fKey, first);
+		}
+	}
 
     private void parsePropertyDocument(IDocument document) {
-        fKeyValuePairs = new ArrayList<>();
+        fKeyIndex= new HashMap<>();
+        fSortedKeys= new TreeMap<>();
+        KeyValuePairModell last= null;
 
         SimpleLineReader reader = new SimpleLineReader(document);
         int offset = 0;
@@ -183,7 +342,9 @@ public class PropertyFileDocumentModel {
 					String value= line.substring(idx + 1);
 					String trimmedValue= Strings.trimLeadingTabsAndSpaces(value);
 					int length= key.length() + 1 + value.length();
-                    fKeyValuePairs.add(new KeyValuePairModell(trimmedKey, trimmedValue, offset, length, leadingWhiteSpaces));
+					KeyValuePairModell keyValuePair= new KeyValuePairModell(trimmedKey, trimmedValue, offset, length, leadingWhiteSpaces);
+                    last= append(last, keyValuePair);
+                    addToIndex(keyValuePair);
                     leadingWhiteSpaces = 0;
                 }
             } else {
@@ -200,9 +361,21 @@ public class PropertyFileDocumentModel {
 			// treat last line having no new line
 		}
         LastKeyValuePair lastKeyValuePair = new LastKeyValuePair(offset, needsNewLine);
-		fKeyValuePairs.add(lastKeyValuePair);
+		append(last, lastKeyValuePair);
     }
 
+	private KeyValuePairModell append(KeyValuePairModell last, KeyValuePairModell pair) {
+		pair.fPrevious= last;
+		if (last != null) {
+			last.fNext= pair;
+			pair.fOrder= last.fOrder + ORDER_GAP;
+		} else {
+			fFirst= pair;
+			pair.fOrder= ORDER_GAP;
+		}
+		return pair;
+	}
+
     private int getIndexOfSeparationCharacter(String line) {
         int minIndex = -1;
         int indexOfEven = line.indexOf('=');
@@ -280,6 +453,10 @@ public class PropertyFileDocumentModel {
         int fOffset;
         int fLength;
         int fLeadingWhiteSpaces;
+        /** Number that increases with the position of the pair in the document */
+        long fOrder;
+        KeyValuePairModell fPrevious;
+        KeyValuePairModell fNext;
 
         public KeyValuePairModell(String key, String value, int offset, int length, int leadingWhiteSpaces) {
             super(key, value);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,11 +17,12 @@ import org.eclipse.core.runtime.Assert;
 
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.JavaModelException;
-import org.eclipse.jdt.core.ToolFactory;
 import org.eclipse.jdt.core.compiler.IScanner;
 import org.eclipse.jdt.core.compiler.ITerminalSymbols;
 import org.eclipse.jdt.core.compiler.InvalidInputException;
 
+import org.eclipse.jdt.internal.corext.dom.ScannerPool;
+
 
 public class RefactoringScanner {
 
@@ -68,7 +69,7 @@ public class RefactoringScanner {
 	public void scan(ICompilationUnit cu)	throws JavaModelException {
 		char[] chars= cu.getBuffer().getCharacters();
 		fMatches= new HashSet<>();
-		fScanner= ToolFactory.createScanner(true, true, false, true);
+		fScanner= ScannerPool.acquire(true, true, false, true);
 		fScanner.setSource(chars);
 
 //		IImportContainer importContainer= cu.getImportContainer();
@@ -77,8 +78,12 @@ public class RefactoringScanner {
 //		else
 //			fNoFlyZone= null;
 
-		doScan();
-		fScanner= null;
+		try {
+			doScan();
+		} finally {
+			ScannerPool.release(fScanner);
+			fScanner= null;
+		}
 	}
 
 	/**
@@ -92,10 +97,14 @@ public class RefactoringScanner {
 	public void scan(String text) {
 		char[] chars= text.toCharArray();
 		fMatches= new HashSet<>();
-		fScanner= ToolFactory.createScanner(true, true, false, true);
+		fScanner= ScannerPool.acquire(true, true, false, true);
 		fScanner.setSource(chars);
-		doScan();
-		fScanner= null;
+		try {
+			doScan();
+		} finally {
+			ScannerPool.release(fScanner);
+			fScanner= null;
+		}
 	}
 
 	private void doScan() {
@@ -56,6 +56,7 @@ import org.eclipse.jdt.core.compiler.IProblem;
 import org.eclipse.jdt.core.dom.AST;
 import org.eclipse.jdt.core.dom.ASTNode;
 import org.eclipse.jdt.core.dom.ASTParser;
+import org.eclipse.jdt.core.dom.ASTRequestor;
 import org.eclipse.jdt.core.dom.AbstractTypeDeclaration;
 import org.eclipse.jdt.core.dom.Block;
 import org.eclipse.jdt.core.dom.BodyDeclaration;
@@ -115,6 +116,7 @@ import org.eclipse.jdt.internal.corext.Corext;
 import org.eclipse.jdt.internal.corext.SourceRangeFactory;
 import org.eclipse.jdt.internal.corext.codemanipulation.ContextSensitiveImportRewriteContext;
 import org.eclipse.jdt.internal.corext.codemanipulation.StubUtility;
+import org.eclipse.jdt.internal.corext.dom.ASTBatchParser;
 import org.eclipse.jdt.internal.corext.dom.ASTNodeFactory;
 import org.eclipse.jdt.internal.corext.dom.ASTNodes;
 import org.eclipse.jdt.internal.corext.dom.Bindings;
@@ -1392,17 +1394,19 @@ public class ChangeSignatureProcessor extends RefactoringProcessor implements ID
 		return RefactoringCoreMessages.ChangeSignatureRefactoring_restructure_parameters;
 	}
 
-	private TextChangeManager createChangeManager(IProgressMonitor pm, RefactoringStatus result) throws CoreException {
-		pm.beginTask(RefactoringCoreMessages.ChangeSignatureRefactoring_preview, 2);
+	private TextChangeManager createChangeManager(IProgressMonitor pm, final RefactoringStatus result) throws CoreException {
+		pm.beginTask(RefactoringCoreMessages.ChangeSignatureRefactoring_preview, 3);
 		fChangeManager= new TextChangeManager();
 		boolean isNoArgConstructor= isNoArgConstructor();
-		Map<ICompilationUnit, Set<IType>> namedSubclassMapping= null;
+		final Map<ICompilationUnit, Set<IType>> namedSubclassMapping;
 		if (isNoArgConstructor){
 			//create only when needed;
 			namedSubclassMapping= createNamedSubclassMapping(new SubProgressMonitor(pm, 1));
 		}else{
+			namedSubclassMapping= null;
 			pm.worked(1);
 		}
+		final Map<ICompilationUnit, SearchResultGroup> groupsToParse= new LinkedHashMap<>();
 		for (int i= 0; i < fOccurrences.length; i++) {
 			if (pm.isCanceled())
 				throw new OperationCanceledException();
@@ -1410,48 +1414,81 @@ public class ChangeSignatureProcessor extends RefactoringProcessor implements ID
 			ICompilationUnit cu= group.getCompilationUnit();
 			if (cu == null)
 				continue;
-			CompilationUnitRewrite cuRewrite;
 			if (cu.equals(getCu())) {
-				cuRewrite= fBaseCuRewrite;
+				// the declaring unit has already been parsed by checkInitialConditions
+				updateOccurrences(group, fBaseCuRewrite, namedSubclassMapping, result);
 			} else {
-				cuRewrite= new CompilationUnitRewrite(cu);
-				cuRewrite.getASTRewrite().setTargetSourceRangeComputer(new TightSourceRangeComputer());
+				groupsToParse.put(cu, group);
 			}
-			ASTNode[] nodes= ASTNodeSearchUtil.findNodes(group.getSearchResults(), cuRewrite.getRoot());
+		}
+		pm.worked(1);
 
-			//IntroduceParameterObjectRefactoring needs to update declarations first:
-			List<OccurrenceUpdate<? extends ASTNode>> deferredUpdates= new ArrayList<>();
-			for (int j= 0; j < nodes.length; j++) {
-				OccurrenceUpdate<? extends ASTNode> update= createOccurrenceUpdate(nodes[j], cuRewrite, result);
-				if (update instanceof DeclarationUpdate) {
-					update.updateNode();
-				} else {
-					deferredUpdates.add(update);
-				}
-			}
-			for (Iterator<OccurrenceUpdate<? extends ASTNode>> iter= deferredUpdates.iterator(); iter.hasNext();) {
-				iter.next().updateNode();
+		// parse the remaining units in batches rather than one at a time:
+		final CoreException[] exception= new CoreException[1];
+		ASTBatchParser parser= new ASTBatchParser() {
+			@Override
+			protected ASTParser createParser(IJavaProject project) {
+				ASTParser astParser= super.createParser(project);
+				astParser.setStatementsRecovery(true);
+				astParser.setCompilerOptions(RefactoringASTParser.getCompilerOptions(project));
+				return astParser;
 			}
-
-			if (isNoArgConstructor && namedSubclassMapping.containsKey(cu)){
-				//only non-anonymous subclasses may have noArgConstructors to modify - see bug 43444
-				Set<IType> subtypes= namedSubclassMapping.get(cu);
-				for (Iterator<IType> iter= subtypes.iterator(); iter.hasNext();) {
-					IType subtype= iter.next();
-					AbstractTypeDeclaration subtypeNode= ASTNodeSearchUtil.getAbstractTypeDeclarationNode(subtype, cuRewrite.getRoot());
-					if (subtypeNode != null)
-						modifyImplicitCallsToNoArgConstructor(subtypeNode, cuRewrite);
+		};
+		ICompilationUnit[] units= groupsToParse.keySet().toArray(new ICompilationUnit[groupsToParse.size()]);
+		parser.createASTs(units, new String[0], new ASTRequestor() {
+			@Override
+			public void acceptAST(ICompilationUnit source, CompilationUnit ast) {
+				if (exception[0] != null)
+					return;
+				CompilationUnitRewrite cuRewrite= new CompilationUnitRewrite(source, ast);
+				cuRewrite.getASTRewrite().setTargetSourceRangeComputer(new TightSourceRangeComputer());
+				try {
+					updateOccurrences(groupsToParse.get(source), cuRewrite, namedSubclassMapping, result);
+				} catch (CoreException e) {
+					exception[0]= e;
 				}
 			}
-			TextChange change= cuRewrite.createChange(true);
-			if (change != null)
-				fChangeManager.manage(cu, change);
-		}
+		}, new SubProgressMonitor(pm, 1));
+		if (exception[0] != null)
+			throw exception[0];
 
 		pm.done();
 		return fChangeManager;
 	}
 
+	private void updateOccurrences(SearchResultGroup group, CompilationUnitRewrite cuRewrite, Map<ICompilationUnit, Set<IType>> namedSubclassMapping, RefactoringStatus result) throws CoreException {
+		ICompilationUnit cu= cuRewrite.getCu();
+		ASTNode[] nodes= ASTNodeSearchUtil.findNodes(group.getSearchResults(), cuRewrite.getRoot());
+
+		//IntroduceParameterObjectRefactoring needs to update declarations first:
+		List<OccurrenceUpdate<? extends ASTNode>> deferredUpdates= new ArrayList<>();
+		for (int j= 0; j < nodes.length; j++) {
+			OccurrenceUpdate<? extends ASTNode> update= createOccurrenceUpdate(nodes[j], cuRewrite, result);
+			if (update instanceof DeclarationUpdate) {
+				update.updateNode();
+			} else {
+				deferredUpdates.add(update);
+			}
+		}
+		for (Iterator<OccurrenceUpdate<? extends ASTNode>> iter= deferredUpdates.iterator(); iter.hasNext();) {
+			iter.next().updateNode();
+		}
+
+		if (namedSubclassMapping != null && namedSubclassMapping.containsKey(cu)){
+			//only non-anonymous subclasses may have noArgConstructors to modify - see bug 43444
+			Set<IType> subtypes= namedSubclassMapping.get(cu);
+			for (Iterator<IType> iter= subtypes.iterator(); iter.hasNext();) {
+				IType subtype= iter.next();
+				AbstractTypeDeclaration subtypeNode= ASTNodeSearchUtil.getAbstractTypeDeclarationNode(subtype, cuRewrite.getRoot());
+				if (subtypeNode != null)
+					modifyImplicitCallsToNoArgConstructor(subtypeNode, cuRewrite);
+			}
+		}
+		TextChange change= cuRewrite.createChange(true);
+		if (change != null)
+			fChangeManager.manage(cu, change);
+	}
+
 	private Map<ICompilationUnit, Set<IType>> createNamedSubclassMapping(IProgressMonitor pm) throws JavaModelException{
 		IType[] subclasses= getCachedTypeHierarchy(new SubProgressMonitor(pm, 1)).getSubclasses(fMethod.getDeclaringType());
 		Map<ICompilationUnit, Set<IType>> result= new HashMap<>();
@@ -116,6 +116,7 @@ import org.eclipse.jdt.internal.ui.text.java.hover.JavaEditorTextHoverDescriptor
 import org.eclipse.jdt.internal.ui.text.spelling.SpellCheckEngine;
 import org.eclipse.jdt.internal.ui.viewsupport.ImageDescriptorRegistry;
 import org.eclipse.jdt.internal.ui.viewsupport.ImagesOnFileSystemRegistry;
+import org.eclipse.jdt.internal.ui.viewsupport.JavaElementLabelCache;
 import org.eclipse.jdt.internal.ui.viewsupport.ProblemMarkerManager;
 import org.eclipse.jdt.internal.ui.wizards.buildpaths.ClasspathAttributeConfigurationDescriptors;
 import org.eclipse.jdt.internal.ui.workingsets.IWorkingSetIDs;
@@ -166,6 +167,10 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 
 	public static boolean DEBUG_RESULT_COLLECTOR;
 
+	public static boolean DEBUG_IMAGE_REGISTRY;
+
+	public static boolean DEBUG_TYPE_HIERARCHY_LIFE_CYCLE;
+
 	private static JavaPlugin fgJavaPlugin;
 
 	private static LinkedHashMap<String, Long> fgRepeatedMessages= new LinkedHashMap<String, Long>(20, 0.75f, true) {
@@ -219,6 +224,11 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 	private ImageDescriptorRegistry fImageDescriptorRegistry;
 
 	private MembersOrderPreferenceCache fMembersOrderPreferenceCache;
+	/**
+	 * The label cache shared by the Java element label providers.
+	 * @since 3.14
+	 */
+	private JavaElementLabelCache fJavaElementLabelCache;
 
 	private JavaEditorTextHoverDescriptor[] fJavaEditorTextHoverDescriptors;
 
@@ -516,6 +526,13 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 				fMembersOrderPreferenceCache= null;
 			}
 
+			synchronized (this) {
+				if (fJavaElementLabelCache != null) {
+					fJavaElementLabelCache.dispose();
+					fJavaElementLabelCache= null;
+				}
+			}
+
 			if (fSaveParticipantRegistry != null) {
 				fSaveParticipantRegistry.dispose();
 				fSaveParticipantRegistry= null;
@@ -609,6 +626,20 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 		return fProblemMarkerManager;
 	}
 
+	/**
+	 * Returns the label cache shared by the Java element label providers.
+	 *
+	 * @return the Java element label cache
+	 * @since 3.14
+	 */
+	public synchronized JavaElementLabelCache getJavaElementLabelCache() {
+		if (fJavaElementLabelCache == null) {
+			fJavaElementLabelCache= new JavaElementLabelCache();
+			fJavaElementLabelCache.install(PreferenceConstants.getPreferenceStore());
+		}
+		return fJavaElementLabelCache;
+	}
+
 	public synchronized JavaTextTools getJavaTextTools() {
 		if (fJavaTextTools == null)
 			fJavaTextTools= new JavaTextTools(getPreferenceStore(), getJavaCorePluginPreferences());
@@ -1050,5 +1081,7 @@ public class JavaPlugin extends AbstractUIPlugin implements DebugOptionsListener
 		DEBUG_BREADCRUMB_ITEM_DROP_DOWN= options.getBooleanOption("org.eclipse.jdt.ui/debug/BreadcrumbItemDropDown", false); //$NON-NLS-1$
 		DEBUG_TYPE_CONSTRAINTS= options.getBooleanOption("org.eclipse.jdt.ui/debug/TypeConstraints", false); //$NON-NLS-1$
 		DEBUG_RESULT_COLLECTOR= options.getBooleanOption("org.eclipse.jdt.ui/debug/ResultCollector", false); //$NON-NLS-1$
+		DEBUG_IMAGE_REGISTRY= options.getBooleanOption("org.eclipse.jdt.ui/debug/ImageDescriptorRegistry", false); //$NON-NLS-1$
+		DEBUG_TYPE_HIERARCHY_LIFE_CYCLE= options.getBooleanOption("org.eclipse.jdt.ui/debug/TypeHierarchyLifeCycle", false); //$NON-NLS-1$
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -96,6 +96,7 @@ import org.eclipse.jdt.internal.corext.util.Strings;
 import org.eclipse.jdt.internal.corext.util.TypeFilter;
 import org.eclipse.jdt.internal.corext.util.TypeInfoFilter;
 import org.eclipse.jdt.internal.corext.util.TypeInfoRequestorAdapter;
+import org.eclipse.jdt.internal.corext.util.TypeNameSnapshot;
 
 import org.eclipse.jdt.launching.IVMInstall;
 import org.eclipse.jdt.launching.IVMInstallType;
@@ -504,6 +505,16 @@ public class FilteredTypesSelectionDialog extends FilteredItemsSelectionDialog i
 		String packPattern= typeSearchFilter.getPackagePattern();
 		progressMonitor.setTaskName(JavaUIMessages.FilteredTypesSelectionDialog_searchJob_taskName);
 
+		if (TypeNameSnapshot.isSnapshotScope(typeSearchFilter.getSearchScope())) {
+			/*
+			 * Filter the types of the workspace in memory. The content provider matches
+			 * the reported candidates against the filter.
+			 */
+			TypeNameSnapshot snapshot= TypeNameSnapshot.getWorkspaceSnapshot(progressMonitor);
+			snapshot.search(typeSearchFilter.fTypeInfoFilter, requestor, progressMonitor);
+			return;
+		}
+
 		/*
 		 * Setting the filter into match everything mode avoids filtering twice
 		 * by the same pattern (the search engine only provides filtered
@@ -114,6 +114,7 @@ import org.eclipse.jdt.core.dom.CompilationUnit;
 import org.eclipse.jdt.core.formatter.DefaultCodeFormatterConstants;
 import org.eclipse.jdt.core.manipulation.CoreASTProvider;
 
+import org.eclipse.jdt.internal.core.manipulation.search.OccurrencesIndex;
 import org.eclipse.jdt.internal.corext.fix.CleanUpPreferenceUtil;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
@@ -1689,6 +1690,10 @@ public class CompilationUnitEditor extends JavaEditor implements IJavaReconcilin
 			listener.reconciled(ast, forced, progressMonitor);
 		}
 
+		// Index the occurrences in the new AST while still in the reconciler thread, large files are indexed on demand
+		if (ast != null && isMarkingOccurrences() && !isLargeFile() && !progressMonitor.isCanceled())
+			OccurrencesIndex.getIndex(ast);
+
 		// Update Java Outline page selection
 		if (!forced && !progressMonitor.isCanceled()) {
 			Shell shell= getSite().getShell();
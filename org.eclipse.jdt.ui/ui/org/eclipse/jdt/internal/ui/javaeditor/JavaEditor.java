@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -188,6 +188,7 @@ import org.eclipse.jdt.core.util.IModifierConstants;
 import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder;
 import org.eclipse.jdt.internal.core.manipulation.search.IOccurrencesFinder.OccurrenceLocation;
 import org.eclipse.jdt.internal.core.manipulation.search.OccurrencesFinder;
+import org.eclipse.jdt.internal.core.manipulation.search.OccurrencesIndex;
 import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
 
 import org.eclipse.jdt.ui.IContextMenuConstants;
@@ -231,6 +232,7 @@ import org.eclipse.jdt.internal.ui.text.JavaWordIterator;
 import org.eclipse.jdt.internal.ui.text.PreferencesAdapter;
 import org.eclipse.jdt.internal.ui.text.java.hover.JavaExpandHover;
 import org.eclipse.jdt.internal.ui.text.java.hover.SourceViewerInformationControl;
+import org.eclipse.jdt.internal.ui.text.javadoc.JavadocContentCache;
 import org.eclipse.jdt.internal.ui.util.ElementValidator;
 import org.eclipse.jdt.internal.ui.util.JavaUIHelp;
 import org.eclipse.jdt.internal.ui.viewsupport.ISelectionListenerWithAST;
@@ -2569,8 +2571,10 @@ public abstract class JavaEditor extends AbstractDecoratedTextEditor implements
 
 		setOutlinePageInput(fOutlinePage, input);
 
-		if (isShowingOverrideIndicators())
+		if (isShowingOverrideIndicators() && !isLargeFile())
 			installOverrideIndicator(false);
+
+		JavadocContentCache.scheduleWarmUp(getInputJavaElement());
 	}
 
 	/*
@@ -2939,7 +2943,7 @@ public abstract class JavaEditor extends AbstractDecoratedTextEditor implements
 
 			if (affectsOverrideIndicatorAnnotations(event)) {
 				if (isShowingOverrideIndicators()) {
-					if (fOverrideIndicatorManager == null)
+					if (fOverrideIndicatorManager == null && !isLargeFile())
 						installOverrideIndicator(true);
 				} else {
 					if (fOverrideIndicatorManager != null)
@@ -3077,6 +3081,17 @@ public abstract class JavaEditor extends AbstractDecoratedTextEditor implements
 		return JavaPlugin.getDefault().getPreferenceStore().getBoolean(PreferenceConstants.EDITOR_FOLDING_ENABLED);
 	}
 
+	/**
+	 * Tells whether this editor's document is a large file, see {@link LargeFileMode}.
+	 *
+	 * @return <code>true</code> if the document exceeds the large-file thresholds
+	 * @since 3.14
+	 */
+	boolean isLargeFile() {
+		IDocumentProvider provider= getDocumentProvider();
+		return provider != null && LargeFileMode.isLargeFile(provider.getDocument(getEditorInput()));
+	}
+
 	/*
 	 * @see org.eclipse.ui.part.WorkbenchPart#getOrientation()
 	 * @since 3.1
@@ -3333,6 +3348,8 @@ public abstract class JavaEditor extends AbstractDecoratedTextEditor implements
 		if (locations == null && selectedNode instanceof Name) {
 			IBinding binding= ((Name)selectedNode).resolveBinding();
 			if (binding != null && markOccurrencesOfType(binding)) {
+				// subsequent caret moves in the same AST are answered by the index
+				OccurrencesIndex.getIndex(astRoot);
 				OccurrencesFinder finder= new OccurrencesFinder();
 				if (finder.initialize(astRoot, selectedNode) == null) {
 					locations= finder.getOccurrences();
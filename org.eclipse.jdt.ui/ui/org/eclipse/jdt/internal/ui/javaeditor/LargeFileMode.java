@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.javaeditor;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.Region;
+
+/**
+ * Thresholds and helpers of the large-file mode of the Java editor.
+ * <p>
+ * Documents with more than {@link #LINE_THRESHOLD} lines or {@link #LENGTH_THRESHOLD} characters
+ * are large files. For large files, semantic highlighting and folding are only computed for the
+ * visible lines plus a margin and are extended when the viewer is scrolled, override indicators
+ * are not shown and the occurrences index is built on demand only.
+ * </p>
+ *
+ * @since 3.14
+ */
+public final class LargeFileMode {
+
+	/** Number of lines above which a document is a large file */
+	public static final int LINE_THRESHOLD= 20000;
+
+	/** Number of characters above which a document is a large file */
+	public static final int LENGTH_THRESHOLD= 1024 * 1024;
+
+	/** Minimal number of lines above and below the visible lines that are part of the range */
+	private static final int MIN_MARGIN_LINES= 100;
+
+	private LargeFileMode() {
+		// no instances
+	}
+
+	/**
+	 * Tells whether the given document is a large file.
+	 *
+	 * @param document the document, can be <code>null</code>
+	 * @return <code>true</code> if the document exceeds one of the thresholds
+	 */
+	public static boolean isLargeFile(IDocument document) {
+		return document != null && (document.getLength() > LENGTH_THRESHOLD || document.getNumberOfLines() > LINE_THRESHOLD);
+	}
+
+	/**
+	 * Computes the range of the document of the given viewer that consists of the visible lines
+	 * and a margin of at least the same number of lines above and below them.
+	 * <p>
+	 * Must be called in the UI thread.
+	 * </p>
+	 *
+	 * @param viewer the text viewer
+	 * @return the range in document coordinates, or <code>null</code> if the viewer has no document
+	 *         or is not visible
+	 */
+	public static IRegion computeRange(ITextViewer viewer) {
+		IDocument document= viewer.getDocument();
+		if (document == null)
+			return null;
+		int top= viewer.getTopIndex();
+		int bottom= viewer.getBottomIndex();
+		if (top < 0 || bottom < top)
+			return null;
+
+		int margin= Math.max(bottom - top + 1, MIN_MARGIN_LINES);
+		int firstLine= Math.max(0, top - margin);
+		int lastLine= Math.min(document.getNumberOfLines() - 1, bottom + margin);
+		try {
+			int offset= document.getLineOffset(firstLine);
+			IRegion last= document.getLineInformation(lastLine);
+			return new Region(offset, last.getOffset() + last.getLength() - offset);
+		} catch (BadLocationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Tells whether the given range contains all visible lines of the given viewer.
+	 * <p>
+	 * Must be called in the UI thread.
+	 * </p>
+	 *
+	 * @param range the range in document coordinates
+	 * @param viewer the text viewer
+	 * @return <code>true</code> if the visible lines are inside the range
+	 */
+	public static boolean coversVisibleLines(IRegion range, ITextViewer viewer) {
+		int start= viewer.getTopIndexStartOffset();
+		int end= viewer.getBottomIndexEndOffset();
+		return start >= range.getOffset() && end <= range.getOffset() + range.getLength();
+	}
+
+	/**
+	 * Tells whether the given range intersects or touches the given text range.
+	 *
+	 * @param range the range
+	 * @param offset the offset of the text range
+	 * @param length the length of the text range
+	 * @return <code>true</code> if the ranges overlap
+	 */
+	public static boolean intersects(IRegion range, int offset, int length) {
+		return offset <= range.getOffset() + range.getLength() && range.getOffset() <= offset + length;
+	}
+}
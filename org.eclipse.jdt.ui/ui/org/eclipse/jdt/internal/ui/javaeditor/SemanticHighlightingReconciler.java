@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -23,7 +23,9 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITextInputListener;
+import org.eclipse.jface.text.IViewportListener;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.TextPresentation;
 import org.eclipse.jface.text.source.ISourceViewer;
@@ -73,6 +75,8 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		 */
 		@Override
 		protected boolean visitNode(ASTNode node) {
+			if (fJobRange != null && !LargeFileMode.intersects(fJobRange, node.getStartPosition(), node.getLength()))
+				return false;
 			if ((node.getFlags() & ASTNode.MALFORMED) == ASTNode.MALFORMED) {
 				retainPositions(node.getStartPosition(), node.getLength());
 				return false;
@@ -271,6 +275,33 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 	 * @since 3.5
 	 */
 	private Highlighting fJobDeprecatedMemberHighlighting;
+	/**
+	 * Range to highlight - cache for background thread, only valid during {@link #reconciled(CompilationUnit, boolean, IProgressMonitor)},
+	 * <code>null</code> if the whole AST is highlighted.
+	 * @since 3.14
+	 */
+	private IRegion fJobRange;
+
+	/**
+	 * The visible lines of the source viewer plus a margin, updated in the UI thread.
+	 * @since 3.14
+	 */
+	private volatile IRegion fVisibleRange;
+	/**
+	 * The range highlighted by the last reconcile, or <code>null</code> if the whole document is highlighted.
+	 * @since 3.14
+	 */
+	private volatile IRegion fHighlightedRange;
+	/**
+	 * Viewport listener that extends the highlighting of large files when scrolling.
+	 * @since 3.14
+	 */
+	private final IViewportListener fViewportListener= new IViewportListener() {
+		@Override
+		public void viewportChanged(int verticalOffset) {
+			handleViewportChanged();
+		}
+	};
 
 	/*
 	 * @see org.eclipse.jdt.internal.ui.text.java.IJavaReconcilingListener#aboutToBeReconciled()
@@ -295,6 +326,8 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		fJobPresenter= fPresenter;
 		fJobSemanticHighlightings= fSemanticHighlightings;
 		fJobHighlightings= fHighlightings;
+		ISourceViewer sourceViewer= fSourceViewer;
+		fJobRange= sourceViewer != null && LargeFileMode.isLargeFile(sourceViewer.getDocument()) ? fVisibleRange : null;
 
 		try {
 			if (fJobPresenter == null || fJobSemanticHighlightings == null || fJobHighlightings == null)
@@ -327,8 +360,10 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 			if (!fJobPresenter.isCanceled())
 				textPresentation= fJobPresenter.createPresentation(fAddedPositions, fRemovedPositions);
 
-			if (!fJobPresenter.isCanceled())
+			if (!fJobPresenter.isCanceled()) {
 				updatePresentation(textPresentation, fAddedPositions, fRemovedPositions);
+				fHighlightedRange= fJobRange;
+			}
 
 			stopReconcilingPositions();
 		} finally {
@@ -336,6 +371,7 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 			fJobSemanticHighlightings= null;
 			fJobHighlightings= null;
 			fJobDeprecatedMemberHighlighting= null;
+			fJobRange= null;
 			synchronized (fReconcileLock) {
 				fIsReconciling= false;
 			}
@@ -437,6 +473,9 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 		fEditor= editor;
 		fSourceViewer= sourceViewer;
 
+		fVisibleRange= LargeFileMode.computeRange(fSourceViewer);
+		fSourceViewer.addViewportListener(fViewportListener);
+
 		if (fEditor instanceof CompilationUnitEditor) {
 			((CompilationUnitEditor)fEditor).addReconcileListener(this);
 		} else if (fEditor == null) {
@@ -460,7 +499,11 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 			fEditor= null;
 		}
 
+		if (fSourceViewer != null)
+			fSourceViewer.removeViewportListener(fViewportListener);
 		fSourceViewer= null;
+		fVisibleRange= null;
+		fHighlightedRange= null;
 		fSemanticHighlightings= null;
 		fHighlightings= null;
 		fPresenter= null;
@@ -532,6 +575,27 @@ public class SemanticHighlightingReconciler implements IJavaReconcilingListener,
 			scheduleJob();
 	}
 
+	/**
+	 * Updates the visible range and extends the highlighting of a large file if the visible lines
+	 * are no longer inside the highlighted range.
+	 *
+	 * @since 3.14
+	 */
+	private void handleViewportChanged() {
+		ISourceViewer sourceViewer= fSourceViewer;
+		if (sourceViewer == null)
+			return;
+
+		IRegion range= LargeFileMode.computeRange(sourceViewer);
+		fVisibleRange= range;
+		IRegion highlightedRange= fHighlightedRange;
+		if (range != null && highlightedRange != null && !LargeFileMode.coversVisibleLines(highlightedRange, sourceViewer)) {
+			// avoid rescheduling on each scroll event until the new range is highlighted
+			fHighlightedRange= range;
+			refresh();
+		}
+	}
+
 	/**
 	 * Refreshes the highlighting.
 	 *
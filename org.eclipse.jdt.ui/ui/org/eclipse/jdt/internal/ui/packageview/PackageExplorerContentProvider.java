@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,8 +12,10 @@ package org.eclipse.jdt.internal.ui.packageview;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
@@ -79,6 +81,18 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 	protected static final int GRANT_PARENT= 1 << 1;
 	protected static final int PROJECT= 1 << 2;
 
+	/**
+	 * The delay in milliseconds before pending updates are run, so that the updates of deltas
+	 * arriving in a short burst are processed together
+	 */
+	private static final long UPDATE_DELAY= 50;
+
+	/**
+	 * The maximal number of pending updates. If more updates are pending, they are replaced by a
+	 * refresh of the whole viewer.
+	 */
+	private static final int MAX_PENDING_UPDATES= 1000;
+
 	private TreeViewer fViewer;
 	private Object fInput;
 	private boolean fIsFlatLayout;
@@ -86,6 +100,19 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 	private boolean fFoldPackages;
 
 	private Collection<Runnable> fPendingUpdates;
+	private boolean fRefreshAllPending;
+
+	/**
+	 * The elements refreshed by the refresh runnables of the updates currently run, mapped to
+	 * whether labels are updated, or <code>null</code> if no updates are run
+	 */
+	private Map<Object, Boolean> fBatchRefreshes;
+
+	/**
+	 * The elements already refreshed while running the current updates, mapped to whether labels
+	 * were updated
+	 */
+	private Map<Object, Boolean> fBatchRefreshed;
 
 	private UIJob fUpdateJob;
 
@@ -147,17 +174,23 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 		if (ctrl != null && !ctrl.isDisposed()) {
 			final boolean hasPendingUpdates;
 			synchronized (this) {
-				hasPendingUpdates= fPendingUpdates != null && !fPendingUpdates.isEmpty();
+				hasPendingUpdates= fRefreshAllPending || fPendingUpdates != null && !fPendingUpdates.isEmpty();
 			}
 			//Are we in the UIThread? If so spin it until we are done
 			if (!hasPendingUpdates && ctrl.getDisplay().getThread() == Thread.currentThread() && !fViewer.isBusy()) {
 				runUpdates(runnables);
 			} else {
 				synchronized (this) {
-					if (fPendingUpdates == null) {
-						fPendingUpdates= runnables;
-					} else {
-						fPendingUpdates.addAll(runnables);
+					if (!fRefreshAllPending) { // otherwise the whole viewer gets refreshed anyway
+						if (fPendingUpdates == null) {
+							fPendingUpdates= runnables;
+						} else {
+							fPendingUpdates.addAll(runnables);
+						}
+						if (fPendingUpdates.size() > MAX_PENDING_UPDATES) {
+							fPendingUpdates= null;
+							fRefreshAllPending= true;
+						}
 					}
 				}
 				postAsyncUpdate(ctrl.getDisplay());
@@ -180,7 +213,7 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 			};
 			fUpdateJob.setSystem(true);
 		}
-		fUpdateJob.schedule();
+		fUpdateJob.schedule(UPDATE_DELAY);
 	}
 
 	/**
@@ -188,25 +221,91 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 	 */
 	public void runPendingUpdates() {
 		Collection<Runnable> pendingUpdates;
+		boolean refreshAll;
 		synchronized (this) {
 			pendingUpdates= fPendingUpdates;
+			refreshAll= fRefreshAllPending;
 			fPendingUpdates= null;
+			fRefreshAllPending= false;
 		}
-		if (pendingUpdates != null && fViewer != null) {
+		if ((pendingUpdates != null || refreshAll) && fViewer != null) {
 			Control control = fViewer.getControl();
 			if (control != null && !control.isDisposed()) {
-				runUpdates(pendingUpdates);
+				if (refreshAll) {
+					refreshAll(control);
+				} else {
+					runUpdates(pendingUpdates);
+				}
 			}
 		}
 	}
 
+	private void refreshAll(Control control) {
+		control.setRedraw(false);
+		try {
+			Object[] expandedObjects= fViewer.getExpandedElements();
+			fViewer.refresh();
+			fViewer.setExpandedElements(expandedObjects);
+			// trigger a synthetic selection change so that actions refresh their enable state
+			fViewer.setSelection(fViewer.getSelection());
+		} finally {
+			control.setRedraw(true);
+		}
+	}
+
 	private void runUpdates(Collection<Runnable> runnables) {
-		Iterator<Runnable> runnableIterator = runnables.iterator();
-		while (runnableIterator.hasNext()){
-			runnableIterator.next().run();
+		Map<Object, Boolean> refreshes= new HashMap<>();
+		for (Iterator<Runnable> iter= runnables.iterator(); iter.hasNext();) {
+			Runnable runnable= iter.next();
+			if (runnable instanceof RefreshRunnable)
+				((RefreshRunnable) runnable).collectRefreshes(refreshes);
+		}
+		fBatchRefreshes= refreshes;
+		fBatchRefreshed= new HashMap<>();
+		try {
+			Iterator<Runnable> runnableIterator = runnables.iterator();
+			while (runnableIterator.hasNext()){
+				runnableIterator.next().run();
+			}
+		} finally {
+			fBatchRefreshes= null;
+			fBatchRefreshed= null;
 		}
 	}
 
+	/**
+	 * Returns whether refreshing the given element can be skipped because the element or all its
+	 * items are refreshed by the updates currently run.
+	 *
+	 * @param element the element to refresh
+	 * @param items the items of the element in the viewer
+	 * @param updateLabels whether labels are updated
+	 * @return <code>true</code> if the element does not need to be refreshed
+	 */
+	private boolean isRefreshCovered(Object element, Widget[] items, boolean updateLabels) {
+		if (fBatchRefreshes == null)
+			return false;
+		if (covers(fBatchRefreshed.get(element), updateLabels))
+			return true; // already refreshed
+		if (covers(fBatchRefreshes.get(fInput), updateLabels) || covers(fBatchRefreshes.get(null), updateLabels))
+			return !element.equals(fInput); // the whole tree gets refreshed
+		for (int i= 0; i < items.length; i++) {
+			if (!(items[i] instanceof TreeItem))
+				return false;
+			boolean covered= false;
+			for (TreeItem parentItem= ((TreeItem) items[i]).getParentItem(); parentItem != null && !covered; parentItem= parentItem.getParentItem()) {
+				covered= covers(fBatchRefreshes.get(parentItem.getData()), updateLabels);
+			}
+			if (!covered)
+				return false;
+		}
+		return true;
+	}
+
+	private static boolean covers(Boolean refreshedLabels, boolean updateLabels) {
+		return refreshedLabels != null && (refreshedLabels.booleanValue() || !updateLabels);
+	}
+
 
 	private boolean inputDeleted(Collection<Runnable> runnables) {
 		if (fInput == null)
@@ -973,18 +1072,47 @@ public class PackageExplorerContentProvider extends StandardJavaElementContentPr
 	}
 
 	protected void postRefresh(final List<Object> toRefresh, final boolean updateLabels, Collection<Runnable> runnables) {
-		runnables.add(new Runnable() {
-			@Override
-			public void run() {
-				Object[] elements= toRefresh.toArray();
-				for (int i= 0; i < elements.length; i++) {
-					Object element= elements[i];
-					if (element == null || fViewer.testFindItems(element).length > 0) {
-						fViewer.refresh(element, updateLabels);
-					}
+		runnables.add(new RefreshRunnable(toRefresh, updateLabels));
+	}
+
+	/**
+	 * Refreshes elements of the viewer. When run together with other updates, elements are skipped
+	 * if they have already been refreshed or if all their items are below elements refreshed by
+	 * the same updates.
+	 */
+	private final class RefreshRunnable implements Runnable {
+
+		private final List<Object> fToRefresh;
+		private final boolean fUpdateLabels;
+
+		public RefreshRunnable(List<Object> toRefresh, boolean updateLabels) {
+			fToRefresh= toRefresh;
+			fUpdateLabels= updateLabels;
+		}
+
+		public void collectRefreshes(Map<Object, Boolean> refreshes) {
+			for (Iterator<Object> iter= fToRefresh.iterator(); iter.hasNext();) {
+				Object element= iter.next();
+				if (!covers(refreshes.get(element), fUpdateLabels))
+					refreshes.put(element, Boolean.valueOf(fUpdateLabels));
+			}
+		}
+
+		@Override
+		public void run() {
+			Object[] elements= fToRefresh.toArray();
+			for (int i= 0; i < elements.length; i++) {
+				Object element= elements[i];
+				if (element != null) {
+					Widget[] items= fViewer.testFindItems(element);
+					if (items.length == 0 || isRefreshCovered(element, items, fUpdateLabels))
+						continue;
 				}
+				fViewer.refresh(element, fUpdateLabels);
+				if (fBatchRefreshed != null && !covers(fBatchRefreshed.get(element), fUpdateLabels))
+					fBatchRefreshed.put(element, Boolean.valueOf(fUpdateLabels));
 			}
-		});
+		}
 	}
 
 	protected void postAdd(final Object parent, final Object element, Collection<Runnable> runnables) {
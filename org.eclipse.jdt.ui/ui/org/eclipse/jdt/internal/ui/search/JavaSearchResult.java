@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -104,4 +104,16 @@ public class JavaSearchResult extends AbstractJavaSearchResult {
 		}
 		super.removeMatch(match);
 	}
+
+	@Override
+	public void removeMatches(Match[] matches) {
+		super.removeMatches(matches);
+		synchronized(this) {
+			for (int i= 0; i < matches.length; i++) {
+				Object element= matches[i].getElement();
+				if (getMatchCount(element) == 0)
+					fElementsToParticipants.remove(element);
+			}
+		}
+	}
 }
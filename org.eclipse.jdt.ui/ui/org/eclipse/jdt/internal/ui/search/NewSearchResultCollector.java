@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,8 +11,13 @@
 package org.eclipse.jdt.internal.ui.search;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.search.ui.text.AbstractTextSearchResult;
+import org.eclipse.search.ui.text.Match;
 
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.search.FieldDeclarationMatch;
@@ -24,14 +29,50 @@ import org.eclipse.jdt.core.search.SearchMatch;
 import org.eclipse.jdt.core.search.SearchParticipant;
 import org.eclipse.jdt.core.search.SearchRequestor;
 
+/**
+ * Collects the matches reported by the search engine into a search result. Matches are buffered and
+ * added in batches, so that the result and the search view process one change event per batch
+ * instead of one per match. A buffered match is added at the latest {@link #FLUSH_INTERVAL} after
+ * it has been reported, even if no further match arrives.
+ */
 public class NewSearchResultCollector extends SearchRequestor {
+
+	/** The maximal number of buffered matches */
+	private static final int BUFFER_SIZE= 500;
+
+	/** The maximal time in milliseconds matches are buffered before they are added to the result */
+	private static final long FLUSH_INTERVAL= 200;
+
 	private AbstractTextSearchResult fSearch;
 	private boolean fIgnorePotentials;
 
+	/** The buffered matches. Accesses to the buffer must be synchronized on the buffer. */
+	private final Match[] fBuffer= new Match[BUFFER_SIZE];
+	private int fBufferCount;
+
+	/** The job that adds the buffered matches once they have been buffered for the flush interval */
+	private final Job fFlushJob;
+
+	/** The enclosing element of the last match, shared by subsequent matches in the same element */
+	private IJavaElement fLastElement;
+
 	public NewSearchResultCollector(AbstractTextSearchResult search, boolean ignorePotentials) {
 		super();
 		fSearch= search;
 		fIgnorePotentials= ignorePotentials;
+		fBufferCount= 0;
+		fFlushJob= new Job(SearchMessages.NewSearchResultCollector_flush_job) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				Match[] matches;
+				synchronized (fBuffer) {
+					matches= takeMatches();
+				}
+				addMatches(matches);
+				return Status.OK_STATUS;
+			}
+		};
+		fFlushJob.setSystem(true);
 	}
 
 	@Override
@@ -60,8 +101,47 @@ public class NewSearchResultCollector extends SearchRequestor {
 				MethodReferenceMatch methodRef= (MethodReferenceMatch) match;
 				isSuperInvocation= methodRef.isSuperInvocation();
 			}
-			fSearch.addMatch(new JavaElementMatch(enclosingElement, match.getRule(), match.getOffset(), match.getLength(), match.getAccuracy(), isReadAccess, isWriteAccess, match.isInsideDocComment(), isSuperInvocation));
+			if (enclosingElement.equals(fLastElement)) {
+				enclosingElement= fLastElement;
+			} else {
+				fLastElement= enclosingElement;
+			}
+			Match javaMatch= new JavaElementMatch(enclosingElement, match.getRule(), match.getOffset(), match.getLength(), match.getAccuracy(), isReadAccess, isWriteAccess, match.isInsideDocComment(), isSuperInvocation);
+			Match[] matches= null;
+			synchronized (fBuffer) {
+				fBuffer[fBufferCount++]= javaMatch;
+				if (fBufferCount == BUFFER_SIZE) {
+					matches= takeMatches();
+				} else if (fBufferCount == 1) {
+					fFlushJob.schedule(FLUSH_INTERVAL);
+				}
+			}
+			addMatches(matches);
+		}
+	}
+
+	/**
+	 * Removes the buffered matches from the buffer. Must be called while holding the lock on the
+	 * buffer. The matches are added to the result outside the lock, so that reporting further
+	 * matches is not blocked while the result and its listeners process a batch.
+	 *
+	 * @return the buffered matches, or <code>null</code> if the buffer is empty
+	 */
+	private Match[] takeMatches() {
+		if (fBufferCount == 0)
+			return null;
+		Match[] matches= new Match[fBufferCount];
+		System.arraycopy(fBuffer, 0, matches, 0, fBufferCount);
+		for (int i= 0; i < fBufferCount; i++) {
+			fBuffer[i]= null;
 		}
+		fBufferCount= 0;
+		return matches;
+	}
+
+	private void addMatches(Match[] matches) {
+		if (matches != null)
+			fSearch.addMatches(matches);
 	}
 
 	@Override
@@ -70,6 +150,19 @@ public class NewSearchResultCollector extends SearchRequestor {
 
 	@Override
 	public void endReporting() {
+		fFlushJob.cancel();
+		try {
+			// a running flush may still be adding its batch
+			fFlushJob.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		Match[] matches;
+		synchronized (fBuffer) {
+			matches= takeMatches();
+		}
+		addMatches(matches);
+		fLastElement= null;
 	}
 
 	@Override
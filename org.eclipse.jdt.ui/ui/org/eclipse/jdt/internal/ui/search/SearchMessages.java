@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -331,4 +331,6 @@ public final class SearchMessages extends NLS {
 	public static String MatchLocations_instanceof_label;
 	public static String MatchLocations_match_locations_description;
 
+	public static String NewSearchResultCollector_flush_job;
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,12 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.search;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.runtime.IAdaptable;
@@ -21,16 +25,21 @@ import org.eclipse.core.resources.IResourceDelta;
 
 import org.eclipse.search.ui.IQueryListener;
 import org.eclipse.search.ui.ISearchQuery;
+import org.eclipse.search.ui.ISearchResultListener;
 import org.eclipse.search.ui.NewSearchUI;
+import org.eclipse.search.ui.SearchResultEvent;
 import org.eclipse.search.ui.text.Match;
+import org.eclipse.search.ui.text.MatchEvent;
+import org.eclipse.search.ui.text.RemoveAllEvent;
 
 import org.eclipse.jdt.core.ElementChangedEvent;
 import org.eclipse.jdt.core.IElementChangedListener;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IOpenable;
 import org.eclipse.jdt.core.JavaCore;
 
-public class SearchResultUpdater implements IElementChangedListener, IQueryListener {
+public class SearchResultUpdater implements IElementChangedListener, IQueryListener, ISearchResultListener {
 
 	JavaSearchResult fResult;
 	private static final int REMOVED_FLAGS= IJavaElementDelta.F_MOVED_TO |
@@ -38,13 +47,98 @@ public class SearchResultUpdater implements IElementChangedListener, IQueryListe
 									IJavaElementDelta.F_CLOSED |
 									IJavaElementDelta.F_CONTENT;
 
+	/**
+	 * The elements of the search result, keyed by their openable (for Java elements) or by
+	 * themselves (for resources), so that a delta only needs to look at the elements in the
+	 * affected compilation units.
+	 */
+	private final Map<Object, Set<Object>> fElementsByContainer= new HashMap<>();
+
 	public SearchResultUpdater(JavaSearchResult result) {
 		fResult= result;
+		fResult.addListener(this);
+		Object[] elements= fResult.getElements();
+		synchronized (fElementsByContainer) {
+			for (int i= 0; i < elements.length; i++) {
+				addToIndex(elements[i]);
+			}
+		}
 		NewSearchUI.addQueryListener(this);
 		JavaCore.addElementChangedListener(this);
 		// TODO make this work with resources
 	}
 
+	@Override
+	public void searchResultChanged(SearchResultEvent e) {
+		if (e instanceof MatchEvent) {
+			MatchEvent event= (MatchEvent) e;
+			Match[] matches= event.getMatches();
+			synchronized (fElementsByContainer) {
+				for (int i= 0; i < matches.length; i++) {
+					Object element= matches[i].getElement();
+					if (event.getKind() == MatchEvent.ADDED) {
+						addToIndex(element);
+					} else if (fResult.getMatchCount(element) == 0) {
+						removeFromIndex(element);
+					}
+				}
+			}
+		} else if (e instanceof RemoveAllEvent) {
+			synchronized (fElementsByContainer) {
+				fElementsByContainer.clear();
+			}
+		}
+	}
+
+	private void addToIndex(Object element) {
+		Object container= getContainer(element);
+		Set<Object> elements= fElementsByContainer.get(container);
+		if (elements == null) {
+			elements= new HashSet<>();
+			fElementsByContainer.put(container, elements);
+		}
+		elements.add(element);
+	}
+
+	private void removeFromIndex(Object element) {
+		Object container= getContainer(element);
+		Set<Object> elements= fElementsByContainer.get(container);
+		if (elements != null && elements.remove(element) && elements.isEmpty()) {
+			fElementsByContainer.remove(container);
+		}
+	}
+
+	private static Object getContainer(Object element) {
+		if (element instanceof IJavaElement) {
+			IOpenable openable= ((IJavaElement) element).getOpenable();
+			if (openable != null)
+				return openable;
+		}
+		return element;
+	}
+
+	/**
+	 * Returns whether all result elements contained in the given element have the same container
+	 * as the element itself, i.e. whether the element is a compilation unit, a class file or one
+	 * of their children.
+	 *
+	 * @param element a removed element
+	 * @return <code>true</code> if the index can be looked up by the container of the element
+	 */
+	private static boolean isInsideContainer(Object element) {
+		if (!(element instanceof IJavaElement))
+			return false;
+		switch (((IJavaElement) element).getElementType()) {
+			case IJavaElement.JAVA_MODEL:
+			case IJavaElement.JAVA_PROJECT:
+			case IJavaElement.PACKAGE_FRAGMENT_ROOT:
+			case IJavaElement.PACKAGE_FRAGMENT:
+				return false;
+			default:
+				return true;
+		}
+	}
+
 	@Override
 	public void elementChanged(ElementChangedEvent event) {
 		//long t0= System.currentTimeMillis();
@@ -52,47 +146,60 @@ public class SearchResultUpdater implements IElementChangedListener, IQueryListe
 		Set<IAdaptable> removedElements= new HashSet<>();
 		Set<IAdaptable> potentiallyRemovedElements= new HashSet<>();
 		collectRemoved(potentiallyRemovedElements, removedElements, delta);
+		removedElements.addAll(potentiallyRemovedElements);
 		if (removedElements.size() > 0)
 			handleRemoved(removedElements);
-		if (potentiallyRemovedElements.size() > 0)
-			handleRemoved(potentiallyRemovedElements);
 		//System.out.println(this+"handled delta in: "+(System.currentTimeMillis()-t0));
 	}
 
-	private void handleRemoved(Set<IAdaptable> removedElements) {
-		Object[] elements= fResult.getElements();
-		for (int i= 0; i < elements.length; i++) {
-			if (isContainedInRemoved(removedElements, elements[i])) {
-				if (elements[i] instanceof IJavaElement) {
-					IJavaElement je= (IJavaElement)elements[i];
-					if (!je.exists()) {
-						//System.out.println("removing: "+je+" in "+fResult.getUserData());
-						Match[] matches= fResult.getMatches(elements[i]);
-						for (int j= 0; j < matches.length; j++) {
-							fResult.removeMatch(matches[j]);
+	private Set<Object> getCandidates(Set<IAdaptable> removedElements) {
+		Set<Object> candidates= new HashSet<>();
+		synchronized (fElementsByContainer) {
+			for (Iterator<IAdaptable> iter= removedElements.iterator(); iter.hasNext();) {
+				IAdaptable removed= iter.next();
+				if (isInsideContainer(removed)) {
+					Set<Object> elements= fElementsByContainer.get(getContainer(removed));
+					if (elements != null) {
+						for (Iterator<Object> elementIter= elements.iterator(); elementIter.hasNext();) {
+							Object element= elementIter.next();
+							if (isParentOf(removed, element))
+								candidates.add(element);
 						}
 					}
-				} else if (elements[i] instanceof IResource) {
-					IResource resource= (IResource)elements[i];
-					if (!resource.exists()) {
-						//System.out.println("removing: "+resource+" in "+fResult.getUserData());
-						Match[] matches= fResult.getMatches(elements[i]);
-						for (int j= 0; j < matches.length; j++) {
-							fResult.removeMatch(matches[j]);
-						}
+				} else {
+					for (Iterator<Map.Entry<Object, Set<Object>>> entryIter= fElementsByContainer.entrySet().iterator(); entryIter.hasNext();) {
+						Map.Entry<Object, Set<Object>> entry= entryIter.next();
+						if (isParentOf(removed, entry.getKey()))
+							candidates.addAll(entry.getValue());
 					}
-
 				}
 			}
 		}
+		return candidates;
 	}
 
-	private boolean isContainedInRemoved(Set<IAdaptable> removedElements, Object object) {
-		for (Iterator<IAdaptable> elements= removedElements.iterator(); elements.hasNext();) {
-			if (isParentOf(elements.next(), object))
-				return true;
+	private void handleRemoved(Set<IAdaptable> removedElements) {
+		List<Match> removedMatches= new ArrayList<>();
+		for (Iterator<Object> iter= getCandidates(removedElements).iterator(); iter.hasNext();) {
+			Object element= iter.next();
+			boolean exists;
+			if (element instanceof IJavaElement) {
+				exists= ((IJavaElement) element).exists();
+			} else if (element instanceof IResource) {
+				exists= ((IResource) element).exists();
+			} else {
+				exists= true;
+			}
+			if (!exists) {
+				//System.out.println("removing: "+element+" in "+fResult.getUserData());
+				Match[] matches= fResult.getMatches(element);
+				for (int j= 0; j < matches.length; j++) {
+					removedMatches.add(matches[j]);
+				}
+			}
 		}
-		return false;
+		if (!removedMatches.isEmpty())
+			fResult.removeMatches(removedMatches.toArray(new Match[removedMatches.size()]));
 	}
 
 	private boolean isParentOf(Object ancestor, Object descendant) {
@@ -141,6 +248,10 @@ public class SearchResultUpdater implements IElementChangedListener, IQueryListe
 		if (fResult.equals(query.getSearchResult())) {
 			JavaCore.removeElementChangedListener(this);
 			NewSearchUI.removeQueryListener(this);
+			fResult.removeListener(this);
+			synchronized (fElementsByContainer) {
+				fElementsByContainer.clear();
+			}
 		}
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,8 +17,13 @@ import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
@@ -28,6 +33,7 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
@@ -46,6 +52,7 @@ import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.ui.PlatformUI;
 
 import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IClasspathEntry;
 import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IRegion;
@@ -83,28 +90,83 @@ public final class SerialVersionHashOperation extends AbstractSerialVersionOpera
 
 	private static final String STATIC_CLASS_INITIALIZER= "<clinit>"; //$NON-NLS-1$
 
+	/** The maximal number of class files whose serial version id is remembered */
+	private static final int MAX_CACHED_IDS= 10000;
+
+	/**
+	 * Serial version ids of class files, keyed by class file path. An entry is only valid as long as
+	 * the modification stamp of the class file did not change.
+	 */
+	private static final Map<IPath, CachedId> fgCachedIds= new LinkedHashMap<IPath, CachedId>(64, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<IPath, CachedId> eldest) {
+			return size() > MAX_CACHED_IDS;
+		}
+	};
+
+	private static final class CachedId {
+		final long fStamp;
+		final Long fId;
+
+		CachedId(long stamp, Long id) {
+			fStamp= stamp;
+			fId= id;
+		}
+	}
+
 	public static Long calculateSerialVersionId(ITypeBinding typeBinding, final IProgressMonitor monitor) throws CoreException, IOException {
 		try {
 			IFile classfileResource= getClassfile(typeBinding);
 			if (classfileResource == null)
 				return null;
 
-			InputStream contents= classfileResource.getContents();
-			try {
-				IClassFileReader cfReader= ToolFactory.createDefaultClassFileReader(contents, IClassFileReader.ALL);
-				if (cfReader != null) {
-					return calculateSerialVersionId(cfReader);
-				}
-			} finally {
-				contents.close();
-			}
-			return null;
+			return calculateSerialVersionId(classfileResource);
 		} finally {
 			if (monitor != null)
 				monitor.done();
 		}
 	}
 
+	/**
+	 * Calculates the serial version id of the given class file. Ids are remembered until the
+	 * class file is modified.
+	 *
+	 * @param classfileResource the class file
+	 * @return the serial version id, or <code>null</code> if the class file could not be read
+	 * @throws CoreException if the class file cannot be accessed
+	 * @throws IOException if reading the class file fails
+	 * @since 3.14
+	 */
+	public static Long calculateSerialVersionId(IFile classfileResource) throws CoreException, IOException {
+		IPath path= classfileResource.getFullPath();
+		long stamp= classfileResource.getModificationStamp();
+		synchronized (fgCachedIds) {
+			CachedId cached= fgCachedIds.get(path);
+			if (cached != null && cached.fStamp == stamp)
+				return cached.fId;
+		}
+
+		Long id= null;
+		InputStream contents= classfileResource.getContents();
+		try {
+			IClassFileReader cfReader= ToolFactory.createDefaultClassFileReader(contents, IClassFileReader.ALL);
+			if (cfReader != null) {
+				id= calculateSerialVersionId(cfReader);
+			}
+		} finally {
+			contents.close();
+		}
+
+		if (id != null && stamp != IResource.NULL_STAMP) {
+			synchronized (fgCachedIds) {
+				fgCachedIds.put(path, new CachedId(stamp, id));
+			}
+		}
+		return id;
+	}
+
 	private static String getClassName(char[] name) {
 		return new String(name).replace('/', '.');
 	}
@@ -286,6 +348,108 @@ public final class SerialVersionHashOperation extends AbstractSerialVersionOpera
 		throw new CoreException(new Status(IStatus.ERROR, JavaUI.ID_PLUGIN, CorrectionMessages.SerialVersionHashOperation_error_classnotfound));
 	}
 
+	/**
+	 * Finds the class files of the given types. Unlike looking up each type separately, the
+	 * generated resources of all compilation units are collected in a single pass over the output
+	 * folders.
+	 *
+	 * @param typeBindings the type bindings
+	 * @return the class files, with a <code>null</code> element for each type whose class file
+	 *         cannot be found
+	 * @throws CoreException if the generated resources cannot be computed
+	 * @since 3.14
+	 */
+	public static IFile[] getClassfiles(ITypeBinding[] typeBindings) throws CoreException {
+		IFile[] result= new IFile[typeBindings.length];
+		IPath[] paths= new IPath[typeBindings.length];
+		IJavaProject[] projects= new IJavaProject[typeBindings.length];
+		IRegion region= JavaCore.newRegion();
+		for (int i= 0; i < typeBindings.length; i++) {
+			IType type= (IType) typeBindings[i].getJavaElement();
+			String name= typeBindings[i].getBinaryName();
+			if (type == null || type.getCompilationUnit() == null || name == null)
+				continue;
+			region.add(type.getCompilationUnit());
+			paths[i]= new Path(name.replace('.', '/') + ".class"); //$NON-NLS-1$
+			projects[i]= type.getJavaProject();
+		}
+		if (region.getElements().length == 0)
+			return result;
+
+		Map<String, List<IFile>> classFilesByName= new HashMap<>();
+		IResource[] classFiles= JavaCore.getGeneratedResources(region, false);
+		for (int i= 0; i < classFiles.length; i++) {
+			IResource resource= classFiles[i];
+			if (resource.getType() == IResource.FILE) {
+				List<IFile> files= classFilesByName.get(resource.getName());
+				if (files == null) {
+					files= new ArrayList<>(1);
+					classFilesByName.put(resource.getName(), files);
+				}
+				files.add((IFile) resource);
+			}
+		}
+
+		Map<IJavaProject, List<IPath>> outputLocations= new HashMap<>();
+		for (int i= 0; i < paths.length; i++) {
+			if (paths[i] == null)
+				continue;
+			List<IFile> files= classFilesByName.get(paths[i].lastSegment());
+			if (files == null)
+				continue;
+			List<IPath> locations= outputLocations.get(projects[i]);
+			if (locations == null) {
+				locations= getOutputLocations(projects[i]);
+				outputLocations.put(projects[i], locations);
+			}
+			for (IFile file : files) {
+				if (isClassFile(file.getFullPath(), paths[i], locations)) {
+					result[i]= file;
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the output locations of the given project: the default output location and the
+	 * output locations of its source folders.
+	 *
+	 * @param project the java project
+	 * @return the full paths of the output locations
+	 * @throws CoreException if the classpath of the project cannot be accessed
+	 */
+	private static List<IPath> getOutputLocations(IJavaProject project) throws CoreException {
+		List<IPath> result= new ArrayList<>();
+		result.add(project.getOutputLocation());
+		IClasspathEntry[] entries= project.getRawClasspath();
+		for (int i= 0; i < entries.length; i++) {
+			IClasspathEntry entry= entries[i];
+			if (entry.getEntryKind() == IClasspathEntry.CPE_SOURCE && entry.getOutputLocation() != null && !result.contains(entry.getOutputLocation()))
+				result.add(entry.getOutputLocation());
+		}
+		return result;
+	}
+
+	/**
+	 * Tests whether the given class file is the class file with the given path relative to one of
+	 * the output locations.
+	 *
+	 * @param fullPath the full path of the class file
+	 * @param relativePath the path of the class file relative to its output location
+	 * @param outputLocations the full paths of the output locations
+	 * @return <code>true</code> if the path of the class file relative to an output location
+	 *         equals the given relative path
+	 */
+	private static boolean isClassFile(IPath fullPath, IPath relativePath, List<IPath> outputLocations) {
+		for (IPath location : outputLocations) {
+			if (location.isPrefixOf(fullPath) && fullPath.removeFirstSegments(location.segmentCount()).equals(relativePath))
+				return true;
+		}
+		return false;
+	}
+
 	/**
 	 * Displays an appropriate error message for a specific problem.
 	 *
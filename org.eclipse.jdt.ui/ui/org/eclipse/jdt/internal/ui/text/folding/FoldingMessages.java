@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2007 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -15,7 +15,7 @@ import org.eclipse.osgi.util.NLS;
 /**
  * Helper class to get NLSed messages.
  */
-final class FoldingMessages extends NLS {
+public final class FoldingMessages extends NLS {
 
 	private static final String BUNDLE_NAME= FoldingMessages.class.getName();
 
@@ -31,6 +31,7 @@ final class FoldingMessages extends NLS {
 	public static String DefaultJavaFoldingPreferenceBlock_headers;
 	public static String EmptyJavaFoldingPreferenceBlock_emptyCaption;
 	public static String JavaFoldingStructureProviderRegistry_warning_providerNotFound_resetToDefault;
+	public static String DefaultJavaFoldingStructureProvider_viewportJob;
 
 	static {
 		NLS.initializeMessages(BUNDLE_NAME, FoldingMessages.class);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2012 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,6 +16,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.osgi.framework.Bundle;
 
@@ -27,8 +28,10 @@ import org.eclipse.core.runtime.IExtension;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.InvalidRegistryObjectException;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.PerformanceStats;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
 import org.eclipse.core.runtime.Status;
 
 import org.eclipse.jface.text.IDocument;
@@ -82,6 +85,21 @@ final class CompletionProposalComputerDescriptor {
 	 * {@link #fIsReportingDelay}.
 	 */
 	private static final long MAX_DELAY= 5000;
+	/**
+	 * The time in milliseconds after which the progress monitor passed to a computer reports
+	 * cancellation, so that well-behaved computers stop early instead of blocking the whole content
+	 * assist session. Like {@link #MAX_DELAY}, this deadline does not apply to the first
+	 * invocation. A computer may return the proposals found so far when it notices the
+	 * cancellation. A computer that stops with an {@link OperationCanceledException} once the
+	 * deadline has passed contributes no proposals, but is not reported as failing.
+	 * <p>
+	 * Computers that do not check the passed monitor are not affected, e.g.
+	 * {@link JavaCompletionProposalComputer} runs code completion with its own timeout monitor.
+	 * </p>
+	 *
+	 * @since 3.14
+	 */
+	private static final long COMPUTER_DEADLINE= Long.getLong("org.eclipse.jdt.ui.codeAssistComputerDeadline", MAX_DELAY).longValue(); // ms //$NON-NLS-1$
 
 	/* log constants */
 	private static final String COMPUTE_COMPLETION_PROPOSALS= "computeCompletionProposals()"; //$NON-NLS-1$
@@ -144,6 +162,13 @@ final class CompletionProposalComputerDescriptor {
 	 */
 	private boolean fNeedsSortingAfterFiltering;
 
+	/**
+	 * The latencies of the proposal computations of this extension.
+	 *
+	 * @since 3.14
+	 */
+	private final LatencyHistogram fLatencies= new LatencyHistogram();
+
 
 	/**
 	 * Creates a new descriptor.
@@ -329,9 +354,21 @@ final class CompletionProposalComputerDescriptor {
 				return Collections.emptyList();
 
 			try {
+				DeadlineProgressMonitor deadlineMonitor= fIsReportingDelay ? new DeadlineProgressMonitor(monitor, COMPUTER_DEADLINE) : null;
+				long start= System.currentTimeMillis();
 				PerformanceStats stats= startMeter(context, computer);
-				List<ICompletionProposal> proposals= computer.computeCompletionProposals(context, monitor);
-				stopMeter(stats, COMPUTE_COMPLETION_PROPOSALS);
+				List<ICompletionProposal> proposals;
+				try {
+					proposals= computer.computeCompletionProposals(context, deadlineMonitor != null ? deadlineMonitor : monitor);
+				} catch (OperationCanceledException x) {
+					if (deadlineMonitor == null || !deadlineMonitor.isDeadlineExceeded())
+						throw x;
+					// a slow computer that stopped at the deadline is not broken
+					return Collections.emptyList();
+				} finally {
+					stopMeter(stats, COMPUTE_COMPLETION_PROPOSALS);
+					fLatencies.record(System.currentTimeMillis() - start);
+				}
 
 				if (proposals != null) {
 					fLastError= computer.getErrorMessage();
@@ -579,6 +616,16 @@ final class CompletionProposalComputerDescriptor {
         }
     }
 
+	/**
+	 * Returns the latency histogram of the proposal computations of the described extension.
+	 *
+	 * @return the latency histogram
+	 * @since 3.14
+	 */
+	LatencyHistogram getLatencies() {
+		return fLatencies;
+	}
+
 	/**
 	 * Returns the <code>needsSortingAfterFiltering</code> flag of the described extension.
 	 * 
@@ -588,4 +635,78 @@ final class CompletionProposalComputerDescriptor {
 	public boolean isSortingAfterFilteringNeeded() {
 		return fNeedsSortingAfterFiltering;
 	}
+
+	/**
+	 * A progress monitor that reports cancellation once a deadline has passed.
+	 *
+	 * @since 3.14
+	 */
+	private static final class DeadlineProgressMonitor extends ProgressMonitorWrapper {
+
+		private final long fDeadline;
+
+		DeadlineProgressMonitor(IProgressMonitor monitor, long timeout) {
+			super(monitor);
+			fDeadline= System.currentTimeMillis() + timeout;
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return super.isCanceled() || isDeadlineExceeded();
+		}
+
+		/**
+		 * Tells whether this monitor reports cancellation because the deadline has passed.
+		 *
+		 * @return <code>true</code> if the deadline has passed
+		 */
+		boolean isDeadlineExceeded() {
+			return System.currentTimeMillis() >= fDeadline;
+		}
+	}
+
+	/**
+	 * A histogram of computation latencies with fixed, logarithmically spaced buckets.
+	 *
+	 * @since 3.14
+	 */
+	static final class LatencyHistogram {
+
+		/** The inclusive upper bounds of the buckets in milliseconds; the last bucket is unbounded. */
+		private static final long[] BOUNDS= { 10, 50, 100, 500, 1000, MAX_DELAY };
+
+		private final AtomicLongArray fCounts= new AtomicLongArray(BOUNDS.length + 1);
+
+		void record(long millis) {
+			int bucket= 0;
+			while (bucket < BOUNDS.length && millis > BOUNDS[bucket])
+				bucket++;
+			fCounts.incrementAndGet(bucket);
+		}
+
+		/**
+		 * Returns the number of computations per bucket.
+		 *
+		 * @return the counts, the last element counts the computations that took longer than
+		 *         {@value CompletionProposalComputerDescriptor#MAX_DELAY} milliseconds
+		 */
+		long[] getCounts() {
+			long[] counts= new long[fCounts.length()];
+			for (int i= 0; i < counts.length; i++)
+				counts[i]= fCounts.get(i);
+			return counts;
+		}
+
+		@Override
+		public String toString() {
+			StringBuffer buf= new StringBuffer();
+			for (int i= 0; i < fCounts.length(); i++) {
+				if (i > 0)
+					buf.append(' ');
+				buf.append(i < BOUNDS.length ? "<=" + BOUNDS[i] : ">" + BOUNDS[BOUNDS.length - 1]); //$NON-NLS-1$ //$NON-NLS-2$
+				buf.append("ms:").append(fCounts.get(i)); //$NON-NLS-1$
+			}
+			return buf.toString();
+		}
+	}
 }
@@ -304,6 +304,9 @@ public class ContentAssistProcessor implements IContentAssistProcessor {
 			System.err.println("Code Assist (setup):\t" + (setup - start) ); //$NON-NLS-1$
 			System.err.println("Code Assist (collect):\t" + (collect - setup) ); //$NON-NLS-1$
 			System.err.println("Code Assist (sort):\t" + (filter - collect) ); //$NON-NLS-1$
+			for (CompletionProposalComputerDescriptor descriptor : fComputerRegistry.getProposalComputerDescriptors(fPartition)) {
+				System.err.println("Code Assist (" + descriptor.getId() + "):\t" + descriptor.getLatencies()); //$NON-NLS-1$ //$NON-NLS-2$
+			}
 		}
 
 		return result;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2017 IBM Corporation and others.
+ * Copyright (c) 2008, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -522,6 +522,20 @@ public class JavadocContentAccess2 {
 	 * @throws CoreException is thrown when the element's Javadoc cannot be accessed
 	 */
 	public static String getHTMLContent(IJavaElement element, boolean useAttachedJavadoc) throws CoreException {
+		String key= JavadocContentCache.getKey(element, useAttachedJavadoc);
+		if (key == null)
+			return computeHTMLContent(element, useAttachedJavadoc);
+
+		JavadocContentCache cache= JavadocContentCache.getDefault();
+		JavadocContentCache.CachedContent cached= cache.get(key);
+		if (cached != null)
+			return cached.getContent();
+		String content= computeHTMLContent(element, useAttachedJavadoc);
+		cache.put(key, content);
+		return content;
+	}
+
+	private static String computeHTMLContent(IJavaElement element, boolean useAttachedJavadoc) throws CoreException {
 		if (element instanceof IPackageFragment) {
 			return getHTMLContent((IPackageFragment) element);
 		}
@@ -0,0 +1,400 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.text.javadoc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import org.eclipse.core.resources.IResource;
+
+import org.eclipse.jdt.core.Flags;
+import org.eclipse.jdt.core.IClassFile;
+import org.eclipse.jdt.core.IClasspathEntry;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IImportDeclaration;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.ILocalVariable;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IOrdinaryClassFile;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.ITypeParameter;
+import org.eclipse.jdt.core.ITypeRoot;
+import org.eclipse.jdt.core.JavaModelException;
+
+import org.eclipse.jdt.internal.corext.javadoc.JavaDocLocations;
+import org.eclipse.jdt.internal.corext.util.JavaModelUtil;
+
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
+/**
+ * Cache for the Javadoc HTML rendered by {@link JavadocContentAccess2} for elements in archives.
+ * <p>
+ * The content is cached in memory for the most recently used elements and in the plug-in's state
+ * location, so that it survives restarts. The cache key consists of the element's handle and a
+ * stamp of the archive, its classpath entry (including source attachment and Javadoc location)
+ * and the source attachment archive. Updated libraries therefore get new keys, and the entries of
+ * old versions are eventually removed from the disk when the maximum number of entries is
+ * exceeded.
+ * </p>
+ * <p>
+ * Only Javadoc that is rendered from the element's own source or attachment is cached. The
+ * Javadoc of methods is not cached, since it can be inherited from overridden methods in other
+ * archives whose changes are not reflected in the key. Elements without Javadoc are only
+ * remembered in memory, so that e.g. a Javadoc location that was unreachable once is asked again
+ * after a restart.
+ * </p>
+ *
+ * @since 3.14
+ */
+public final class JavadocContentCache {
+
+	/**
+	 * The content of a cache entry.
+	 */
+	public static final class CachedContent {
+
+		private final String fContent;
+
+		CachedContent(String content) {
+			fContent= content;
+		}
+
+		/**
+		 * Returns the cached HTML.
+		 *
+		 * @return the HTML, or <code>null</code> if the element has no Javadoc
+		 */
+		public String getContent() {
+			return fContent;
+		}
+	}
+
+	private static final String CACHE_DIR= "javadoc-cache"; //$NON-NLS-1$
+
+	private static final String FILE_EXTENSION= ".dat"; //$NON-NLS-1$
+
+	private static final int MAX_MEMORY_ENTRIES= 200;
+
+	private static final int MAX_DISK_ENTRIES= 5000;
+
+	/** Maximum number of imports whose types are warmed up per editor input */
+	private static final int MAX_WARM_UP_TYPES= 50;
+
+	private static JavadocContentCache fgDefault;
+
+	private final Map<String, CachedContent> fMemoryCache= new LinkedHashMap<String, CachedContent>(MAX_MEMORY_ENTRIES, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CachedContent> eldest) {
+			return size() > MAX_MEMORY_ENTRIES;
+		}
+	};
+
+	/** The directory of the disk cache, or <code>null</code> if there is none */
+	private final File fCacheDir;
+
+	private JavadocContentCache() {
+		this(createCacheDir());
+	}
+
+	/**
+	 * Creates a cache that stores its entries in the given directory.
+	 * <p>
+	 * This constructor is for testing purpose only.
+	 * </p>
+	 *
+	 * @param cacheDir the directory of the disk cache, or <code>null</code> to cache in memory only
+	 */
+	public JavadocContentCache(File cacheDir) {
+		fCacheDir= cacheDir;
+	}
+
+	/**
+	 * Returns the shared Javadoc content cache.
+	 *
+	 * @return the cache
+	 */
+	static synchronized JavadocContentCache getDefault() {
+		if (fgDefault == null)
+			fgDefault= new JavadocContentCache();
+		return fgDefault;
+	}
+
+	private static File createCacheDir() {
+		try {
+			File cacheDir= JavaPlugin.getDefault().getStateLocation().append(CACHE_DIR).toFile();
+			if (!cacheDir.exists())
+				cacheDir.mkdir();
+			if (!cacheDir.isDirectory()) {
+				JavaPlugin.logErrorMessage("Failed to create Javadoc cache directory " + cacheDir.toString()); //$NON-NLS-1$
+				return null;
+			}
+			removeOldestFiles(cacheDir);
+			return cacheDir;
+		} catch (IllegalStateException e) {
+			// no state location
+			return null;
+		}
+	}
+
+	private static void removeOldestFiles(File cacheDir) {
+		File[] files= cacheDir.listFiles();
+		if (files == null || files.length <= MAX_DISK_ENTRIES)
+			return;
+		final long[] lastModified= new long[files.length];
+		Integer[] order= new Integer[files.length];
+		for (int i= 0; i < files.length; i++) {
+			lastModified[i]= files[i].lastModified();
+			order[i]= Integer.valueOf(i);
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer o1, Integer o2) {
+				return Long.compare(lastModified[o1.intValue()], lastModified[o2.intValue()]);
+			}
+		});
+		for (int i= 0; i < files.length - MAX_DISK_ENTRIES; i++) {
+			files[order[i].intValue()].delete();
+		}
+	}
+
+	/**
+	 * Returns the cache key for the Javadoc of the given element.
+	 *
+	 * @param element the element
+	 * @param useAttachedJavadoc whether attached Javadoc is used if there's no source
+	 * @return the key, or <code>null</code> if the Javadoc of the element is not cached
+	 */
+	public static String getKey(IJavaElement element, boolean useAttachedJavadoc) {
+		IPackageFragmentRoot root= JavaModelUtil.getPackageFragmentRoot(element);
+		if (root == null || !root.isArchive() || !isSelfContained(element))
+			return null;
+
+		IResource resource= root.getResource();
+		IPath location= resource != null ? resource.getLocation() : root.getPath();
+		if (location == null)
+			return null;
+		File archive= location.toFile();
+		IClasspathEntry entry;
+		IPath sourceAttachment;
+		try {
+			if (root.getKind() != IPackageFragmentRoot.K_BINARY)
+				return null;
+			entry= root.getResolvedClasspathEntry();
+			sourceAttachment= root.getSourceAttachmentPath();
+		} catch (JavaModelException e) {
+			// not on the classpath: don't cache
+			return null;
+		}
+
+		StringBuffer buf= new StringBuffer();
+		buf.append(element.getHandleIdentifier());
+		buf.append('|').append(useAttachedJavadoc);
+		buf.append('|').append(archive.lastModified());
+		buf.append('|').append(archive.length());
+		buf.append('|').append(Integer.toHexString(entry.toString().hashCode()));
+		if (sourceAttachment != null)
+			buf.append('|').append(sourceAttachment.toFile().lastModified());
+		return buf.toString();
+	}
+
+	/**
+	 * Tells whether the Javadoc of the given element is rendered from the element's own source or
+	 * attachment only.
+	 *
+	 * @param element the element
+	 * @return <code>false</code> if the Javadoc may be inherited from other elements
+	 */
+	private static boolean isSelfContained(IJavaElement element) {
+		IJavaElement member= element;
+		if (element instanceof ILocalVariable)
+			member= ((ILocalVariable) element).getDeclaringMember();
+		else if (element instanceof ITypeParameter)
+			member= ((ITypeParameter) element).getDeclaringMember();
+		if (member instanceof IMethod) {
+			try {
+				return ((IMethod) member).isConstructor();
+			} catch (JavaModelException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the cached content for the given key.
+	 *
+	 * @param key the key, see {@link #getKey(IJavaElement, boolean)}
+	 * @return the cached content, or <code>null</code> if nothing is cached for the key
+	 */
+	public CachedContent get(String key) {
+		CachedContent content;
+		synchronized (fMemoryCache) {
+			content= fMemoryCache.get(key);
+		}
+		if (content == null && fCacheDir != null) {
+			content= read(getFile(key), key);
+			if (content != null) {
+				synchronized (fMemoryCache) {
+					fMemoryCache.put(key, content);
+				}
+			}
+		}
+		return content;
+	}
+
+	/**
+	 * Caches the content for the given key. Content is only written to the disk if the element
+	 * has Javadoc.
+	 *
+	 * @param key the key, see {@link #getKey(IJavaElement, boolean)}
+	 * @param content the HTML, or <code>null</code> if the element has no Javadoc
+	 */
+	public void put(String key, String content) {
+		CachedContent cachedContent= new CachedContent(content);
+		synchronized (fMemoryCache) {
+			fMemoryCache.put(key, cachedContent);
+		}
+		if (fCacheDir != null && content != null)
+			write(getFile(key), key, content);
+	}
+
+	private File getFile(String key) {
+		return new File(fCacheDir, Integer.toHexString(key.hashCode()) + FILE_EXTENSION);
+	}
+
+	private static CachedContent read(File file, String key) {
+		if (!file.isFile())
+			return null;
+		try (DataInputStream in= new DataInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file))))) {
+			if (!key.equals(in.readUTF()))
+				return null; // a different key with the same hash code
+			byte[] bytes= new byte[in.readInt()];
+			in.readFully(bytes);
+			String content= new String(bytes, StandardCharsets.UTF_8);
+			// keep recently used files when the cache is trimmed
+			file.setLastModified(System.currentTimeMillis());
+			return new CachedContent(content);
+		} catch (IOException e) {
+			file.delete();
+			return null;
+		}
+	}
+
+	private static void write(File file, String key, String html) {
+		File tempFile= null;
+		try {
+			tempFile= File.createTempFile("javadoc", FILE_EXTENSION, file.getParentFile()); //$NON-NLS-1$
+			try (DataOutputStream out= new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile))))) {
+				out.writeUTF(key);
+				byte[] bytes= html.getBytes(StandardCharsets.UTF_8);
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+			file.delete();
+			if (tempFile.renameTo(file))
+				tempFile= null;
+		} catch (IOException e) {
+			JavaPlugin.log(e);
+		} finally {
+			if (tempFile != null)
+				tempFile.delete();
+		}
+	}
+
+	/**
+	 * Renders the Javadoc of the binary types that are likely to be hovered in the given editor
+	 * input in the background: the imported types of a compilation unit, or the type of a class
+	 * file. Only types whose Javadoc is read from a source attachment or a local Javadoc
+	 * location are warmed up, so that no remote Javadoc is fetched.
+	 *
+	 * @param input the editor input, can be <code>null</code>
+	 */
+	public static void scheduleWarmUp(final ITypeRoot input) {
+		if (input == null)
+			return;
+		Job job= new Job(JavaDocMessages.JavadocContentCache_warm_up_job) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				try {
+					if (input instanceof ICompilationUnit) {
+						warmUpImports((ICompilationUnit) input, monitor);
+					} else if (input instanceof IOrdinaryClassFile) {
+						warmUp(((IOrdinaryClassFile) input).getType());
+					}
+				} catch (CoreException e) {
+					// the Javadoc will be rendered when it is requested
+				}
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		job.schedule();
+	}
+
+	private static void warmUpImports(ICompilationUnit unit, IProgressMonitor monitor) throws CoreException {
+		if (!unit.exists())
+			return;
+		IJavaProject project= unit.getJavaProject();
+		IImportDeclaration[] imports= unit.getImports();
+		for (int i= 0; i < imports.length && i < MAX_WARM_UP_TYPES; i++) {
+			if (monitor.isCanceled())
+				return;
+			IImportDeclaration declaration= imports[i];
+			if (declaration.isOnDemand() || Flags.isStatic(declaration.getFlags()))
+				continue;
+			IType type= project.findType(declaration.getElementName());
+			if (type != null && type.isBinary())
+				warmUp(type);
+		}
+	}
+
+	private static void warmUp(IType type) throws CoreException {
+		// members are not warmed up: resolving inherited Javadoc may fetch the attached Javadoc of other libraries
+		if (hasLocalJavadoc(type))
+			JavadocContentAccess2.getHTMLContent(type, true);
+	}
+
+	private static boolean hasLocalJavadoc(IType type) throws JavaModelException {
+		IClassFile classFile= type.getClassFile();
+		if (classFile != null && classFile.getBuffer() != null)
+			return true;
+		URL location= JavaDocLocations.getJavadocBaseLocation(type);
+		if (location == null)
+			return false;
+		return "file".equals(location.getProtocol()) || location.toExternalForm().startsWith(JavaDocLocations.ARCHIVE_PREFIX + "file:"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2011 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,9 +10,19 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.text.spelling;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
 import org.eclipse.core.runtime.AssertionFailedException;
 import org.eclipse.core.runtime.IProgressMonitor;
 
+import org.eclipse.jface.preference.IPreferenceStore;
+
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
@@ -25,15 +35,154 @@ import org.eclipse.jdt.ui.PreferenceConstants;
 import org.eclipse.jdt.ui.text.IJavaPartitions;
 
 import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellEvent;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellEventListener;
+import org.eclipse.jdt.internal.ui.text.spelling.engine.RankedWordProposal;
 
 
 /**
  * Java spelling engine
+ * <p>
+ * The spelling events of the checked partitions are remembered per document and keyed by the
+ * type and content of the partition, so that only new or modified partitions are checked again
+ * when the document is reconciled.
+ * </p>
  *
  * @since 3.1
  */
 public class JavaSpellingEngine extends SpellingEngine {
 
+	/**
+	 * Identifies a partition by its type and content.
+	 *
+	 * @since 3.14
+	 */
+	private static final class PartitionKey {
+
+		private final String fType;
+		private final String fContent;
+
+		PartitionKey(String type, String content) {
+			fType= type;
+			fContent= content;
+		}
+
+		@Override
+		public int hashCode() {
+			return fContent.hashCode() * 31 + fType.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof PartitionKey))
+				return false;
+			PartitionKey other= (PartitionKey) obj;
+			return fType.equals(other.fType) && fContent.equals(other.fContent);
+		}
+	}
+
+	/**
+	 * The spelling events found in a partition, relative to the offset the partition had when it
+	 * was checked.
+	 *
+	 * @since 3.14
+	 */
+	private static final class CheckedPartition {
+
+		private final int fOffset;
+		private final ISpellEvent[] fEvents;
+
+		CheckedPartition(int offset, ISpellEvent[] events) {
+			fOffset= offset;
+			fEvents= events;
+		}
+	}
+
+	/**
+	 * The checked partitions of a document. Only valid for the spell checker and the settings
+	 * the partitions were checked with.
+	 *
+	 * @since 3.14
+	 */
+	private static final class PartitionCache {
+
+		private final ISpellChecker fChecker;
+		private final String fSettings;
+		private Map<PartitionKey, CheckedPartition> fPartitions= new HashMap<>();
+
+		PartitionCache(ISpellChecker checker, String settings) {
+			fChecker= checker;
+			fSettings= settings;
+		}
+	}
+
+	/**
+	 * A spelling event of a partition that has moved since it was checked.
+	 *
+	 * @since 3.14
+	 */
+	private static final class MovedSpellEvent implements ISpellEvent {
+
+		private final ISpellEvent fEvent;
+		private final int fDelta;
+
+		MovedSpellEvent(ISpellEvent event, int delta) {
+			fEvent= event;
+			fDelta= delta;
+		}
+
+		@Override
+		public int getBegin() {
+			return fEvent.getBegin() + fDelta;
+		}
+
+		@Override
+		public int getEnd() {
+			return fEvent.getEnd() + fDelta;
+		}
+
+		@Override
+		public Set<RankedWordProposal> getProposals() {
+			return fEvent.getProposals();
+		}
+
+		@Override
+		public String getWord() {
+			return fEvent.getWord();
+		}
+
+		@Override
+		public boolean isMatch() {
+			return fEvent.isMatch();
+		}
+
+		@Override
+		public boolean isStart() {
+			return fEvent.isStart();
+		}
+	}
+
+	/**
+	 * Spell event listener that records the events of one partition.
+	 *
+	 * @since 3.14
+	 */
+	private static final class RecordingListener implements ISpellEventListener {
+
+		private final List<ISpellEvent> fEvents= new ArrayList<>();
+
+		@Override
+		public void handle(ISpellEvent event) {
+			fEvents.add(event);
+		}
+	}
+
+	/**
+	 * The checked partitions per document.
+	 *
+	 * @since 3.14
+	 */
+	private static final Map<IDocument, PartitionCache> fgPartitionCaches= Collections.synchronizedMap(new WeakHashMap<IDocument, PartitionCache>());
 
 	/*
 	 * @see org.eclipse.jdt.internal.ui.text.spelling.SpellingEngine#check(org.eclipse.jface.text.IDocument, org.eclipse.jface.text.IRegion[], org.eclipse.jdt.internal.ui.text.spelling.engine.ISpellChecker, org.eclipse.ui.texteditor.spelling.ISpellingProblemCollector, org.eclipse.core.runtime.IProgressMonitor)
@@ -42,16 +191,23 @@ public class JavaSpellingEngine extends SpellingEngine {
 	protected void check(IDocument document, IRegion[] regions, ISpellChecker checker, ISpellingProblemCollector collector, IProgressMonitor monitor) {
 		SpellEventListener listener= new SpellEventListener(collector, document);
 		boolean isIgnoringJavaStrings= PreferenceConstants.getPreferenceStore().getBoolean(PreferenceConstants.SPELLING_IGNORE_JAVA_STRINGS);
+		PartitionCache cache= getPartitionCache(document, checker);
+		Map<PartitionKey, CheckedPartition> previousPartitions;
+		synchronized (cache) {
+			previousPartitions= cache.fPartitions;
+		}
+		Map<PartitionKey, CheckedPartition> checkedPartitions= new HashMap<>();
+		// when the whole document is checked, the partitions that no longer exist are forgotten
+		boolean isComplete= regions.length == 1 && regions[0].getOffset() == 0 && regions[0].getLength() == document.getLength();
 		try {
-			for (int i= 0; i < regions.length; i++) {
+			regionLoop: for (int i= 0; i < regions.length; i++) {
 				IRegion region= regions[i];
 				ITypedRegion[] partitions= TextUtilities.computePartitioning(document, IJavaPartitions.JAVA_PARTITIONING, region.getOffset(), region.getLength(), false);
 				for (int index= 0; index < partitions.length; index++) {
-					if (monitor != null && monitor.isCanceled())
-						return;
-
-					if (listener.isProblemsThresholdReached())
-						return;
+					if (monitor != null && monitor.isCanceled() || listener.isProblemsThresholdReached()) {
+						isComplete= false;
+						break regionLoop;
+					}
 
 					ITypedRegion partition= partitions[index];
 					final String type= partition.getType();
@@ -59,14 +215,102 @@ public class JavaSpellingEngine extends SpellingEngine {
 					if (isIgnoringJavaStrings && type.equals(IJavaPartitions.JAVA_STRING))
 						continue;
 
-					if (!type.equals(IDocument.DEFAULT_CONTENT_TYPE) && !type.equals(IJavaPartitions.JAVA_CHARACTER))
-						checker.execute(listener, new SpellCheckIterator(document, partition, checker.getLocale()));
+					if (!type.equals(IDocument.DEFAULT_CONTENT_TYPE) && !type.equals(IJavaPartitions.JAVA_CHARACTER)) {
+						PartitionKey key= new PartitionKey(type, document.get(partition.getOffset(), partition.getLength()));
+						CheckedPartition checked= previousPartitions.get(key);
+						if (checked == null)
+							checked= checkedPartitions.get(key);
+						if (checked != null) {
+							reportEvents(listener, checker, checked, partition.getOffset());
+						} else {
+							RecordingListener recorder= new RecordingListener();
+							checker.execute(recorder, new SpellCheckIterator(document, partition, checker.getLocale()));
+							checked= new CheckedPartition(partition.getOffset(), recorder.fEvents.toArray(new ISpellEvent[recorder.fEvents.size()]));
+							for (int event= 0; event < checked.fEvents.length; event++)
+								listener.handle(checked.fEvents[event]);
+						}
+						checkedPartitions.put(key, checked);
+					}
 				}
 			}
 		} catch (BadLocationException x) {
 			// ignore: the document has been changed in another thread and will be checked again
+			return;
 		} catch (AssertionFailedException x) {
 			// ignore: the document has been changed in another thread and will be checked again
+			return;
+		}
+
+		synchronized (cache) {
+			if (!isComplete) {
+				// keep the partitions that have not been looked at
+				Map<PartitionKey, CheckedPartition> partitions= new HashMap<>(cache.fPartitions);
+				partitions.putAll(checkedPartitions);
+				checkedPartitions= partitions;
+			}
+			// the maps are not modified once they are published
+			cache.fPartitions= checkedPartitions;
+		}
+	}
+
+	/**
+	 * Reports the remembered events of an unchanged partition. Events for words that have been
+	 * added to the dictionary or ignored since the partition was checked are dropped.
+	 *
+	 * @param listener the listener to report the events to
+	 * @param checker the spell checker
+	 * @param checked the checked partition
+	 * @param offset the current offset of the partition
+	 * @since 3.14
+	 */
+	private static void reportEvents(SpellEventListener listener, ISpellChecker checker, CheckedPartition checked, int offset) {
+		int delta= offset - checked.fOffset;
+		for (int i= 0; i < checked.fEvents.length; i++) {
+			ISpellEvent event= checked.fEvents[i];
+			if (!event.isMatch() && checker.isCorrect(event.getWord()))
+				continue;
+			listener.handle(delta == 0 ? event : new MovedSpellEvent(event, delta));
 		}
 	}
+
+	/**
+	 * Returns the checked partitions of the given document, discarding them if they were checked
+	 * with another spell checker or other settings.
+	 *
+	 * @param document the document
+	 * @param checker the spell checker
+	 * @return the checked partitions
+	 * @since 3.14
+	 */
+	private static PartitionCache getPartitionCache(IDocument document, ISpellChecker checker) {
+		String settings= getSettings();
+		synchronized (fgPartitionCaches) {
+			PartitionCache cache= fgPartitionCaches.get(document);
+			if (cache == null || cache.fChecker != checker || !cache.fSettings.equals(settings)) {
+				cache= new PartitionCache(checker, settings);
+				fgPartitionCaches.put(document, cache);
+			}
+			return cache;
+		}
+	}
+
+	/**
+	 * Returns the preferences that influence the spelling events found in a partition.
+	 *
+	 * @return the settings
+	 * @since 3.14
+	 */
+	private static String getSettings() {
+		IPreferenceStore store= PreferenceConstants.getPreferenceStore();
+		StringBuffer buffer= new StringBuffer();
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_DIGITS));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_MIXED));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_SENTENCE));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_UPPER));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_URLS));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_NON_LETTERS));
+		buffer.append(store.getBoolean(PreferenceConstants.SPELLING_IGNORE_SINGLE_LETTERS));
+		buffer.append(store.getInt(PreferenceConstants.SPELLING_PROBLEMS_THRESHOLD));
+		return buffer.toString();
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -53,6 +53,22 @@ import org.eclipse.jdt.internal.ui.JavaPlugin;
  */
 public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IElementChangedListener {
 
+	/**
+	 * Time window in milliseconds in which hierarchy change notifications are coalesced into a
+	 * single refresh of the type hierarchy view.
+	 *
+	 * @since 3.14
+	 */
+	private static final long HIERARCHY_CHANGE_DELAY= 500;
+
+	/**
+	 * Maximal time in milliseconds that a pending refresh of the type hierarchy view is delayed by
+	 * hierarchy change notifications that keep arriving.
+	 *
+	 * @since 3.14
+	 */
+	private static final long HIERARCHY_CHANGE_MAX_DELAY= 3000;
+
 	private boolean fHierarchyRefreshNeeded;
 	private ITypeHierarchy fHierarchy;
 	private IJavaElement[] fInputElements;
@@ -81,6 +97,38 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 	 */
 	private boolean fRefreshJobCanceledExplicitly= true;
 
+	/**
+	 * The job that notifies the listeners about hierarchy changes once no further change has been
+	 * reported within {@link #HIERARCHY_CHANGE_DELAY}, or <code>null</code> if no notification is
+	 * pending.
+	 *
+	 * @since 3.14
+	 */
+	private Job fHierarchyChangedJob;
+
+	/**
+	 * The time of the first hierarchy change notification of the pending refresh.
+	 *
+	 * @since 3.14
+	 */
+	private long fFirstHierarchyChange;
+
+	/**
+	 * The time of the last hierarchy change notification.
+	 *
+	 * @since 3.14
+	 */
+	private long fLastHierarchyChange;
+
+	/**
+	 * Statistics: number of full hierarchy computations or refreshes, of hierarchy changes that were
+	 * coalesced with a pending one, and of changes handled by updating the hierarchy viewers in place.
+	 * Traced with the debug option <code>org.eclipse.jdt.ui/debug/TypeHierarchyLifeCycle</code>.
+	 *
+	 * @since 3.14
+	 */
+	private int fFullRefreshCount, fCoalescedChangeCount, fInPlaceUpdateCount;
+
 	/**
 	 * Creates the type hierarchy life cycle.
 	 *
@@ -126,6 +174,10 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 				fRefreshHierarchyJob.cancel();
 				fRefreshHierarchyJob= null;
 			}
+			if (fHierarchyChangedJob != null) {
+				fHierarchyChangedJob.cancel();
+				fHierarchyChangedJob= null;
+			}
 		}
 	}
 
@@ -342,6 +394,11 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 		fHierarchy.addTypeHierarchyChangedListener(this);
 		JavaCore.addElementChangedListener(this);
 		fHierarchyRefreshNeeded= false;
+		synchronized (this) {
+			fFullRefreshCount++;
+			if (JavaPlugin.DEBUG_TYPE_HIERARCHY_LIFE_CYCLE)
+				System.out.println("TypeHierarchyLifeCycle: " + fFullRefreshCount + " full refreshes, " + fCoalescedChangeCount + " coalesced changes, " + fInPlaceUpdateCount + " in-place updates"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
 	}
 
 	/*
@@ -350,7 +407,42 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 	@Override
 	public void typeHierarchyChanged(ITypeHierarchy typeHierarchy) {
 	 	fHierarchyRefreshNeeded= true;
- 		fireChange(null);
+		if (fTypeHierarchyViewPart == null) {
+			fireChange(null);
+			return;
+		}
+		// during builds and refactorings, changes arrive in bursts: refresh only once they settle,
+		// but not later than HIERARCHY_CHANGE_MAX_DELAY after the first change
+		synchronized (this) {
+			fLastHierarchyChange= System.currentTimeMillis();
+			if (fHierarchyChangedJob != null) {
+				fCoalescedChangeCount++;
+				return;
+			}
+			fFirstHierarchyChange= fLastHierarchyChange;
+			fHierarchyChangedJob= new Job(TypeHierarchyMessages.TypeHierarchyLifeCycle_hierarchyChanged) {
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					long remaining;
+					synchronized (TypeHierarchyLifeCycle.this) {
+						if (fHierarchyChangedJob != this)
+							return Status.CANCEL_STATUS;
+						long deadline= Math.min(fLastHierarchyChange + HIERARCHY_CHANGE_DELAY, fFirstHierarchyChange + HIERARCHY_CHANGE_MAX_DELAY);
+						remaining= deadline - System.currentTimeMillis();
+						if (remaining <= 0)
+							fHierarchyChangedJob= null;
+					}
+					if (remaining > 0) {
+						schedule(remaining);
+					} else if (!monitor.isCanceled()) {
+						fireChange(null);
+					}
+					return Status.OK_STATUS;
+				}
+			};
+			fHierarchyChangedJob.setSystem(true);
+			fHierarchyChangedJob.schedule(HIERARCHY_CHANGE_DELAY);
+		}
 	}
 
 	/*
@@ -368,6 +460,9 @@ public class TypeHierarchyLifeCycle implements ITypeHierarchyChangedListener, IE
 			ArrayList<IType> changedTypes= new ArrayList<>();
 			processDelta(event.getDelta(), changedTypes);
 			if (changedTypes.size() > 0) {
+				synchronized (this) {
+					fInPlaceUpdateCount++;
+				}
 				fireChange(changedTypes.toArray(new IType[changedTypes.size()]));
 			}
 		}
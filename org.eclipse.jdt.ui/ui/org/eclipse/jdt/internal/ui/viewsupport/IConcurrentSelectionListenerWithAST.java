@@ -0,0 +1,26 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.viewsupport;
+
+/**
+ * Marker interface for {@link ISelectionListenerWithAST selection listeners} that do not depend on
+ * the order in which the listeners of an editor are informed.
+ * <p>
+ * Listeners are informed one after another in registration order. Listeners implementing this
+ * interface are instead informed in a job of their own, concurrently with the listeners
+ * registered after them. All listeners are done before the next selection is processed.
+ * </p>
+ *
+ * @since 3.14
+ */
+public interface IConcurrentSelectionListenerWithAST extends ISelectionListenerWithAST {
+	// marker interface
+}
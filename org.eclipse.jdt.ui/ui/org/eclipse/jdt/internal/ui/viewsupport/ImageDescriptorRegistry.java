@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,10 +10,9 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.viewsupport;
 
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Display;
@@ -24,12 +23,22 @@ import org.eclipse.jface.resource.ImageDescriptor;
 
 import org.eclipse.ui.PlatformUI;
 
+import org.eclipse.jdt.internal.ui.JavaPlugin;
+
 /**
  * A registry that maps <code>ImageDescriptors</code> to <code>Image</code>.
+ * <p>
+ * Images are shared by all clients and are only disposed together with the registry, since the
+ * registry cannot know whether an image is still shown by a widget.
+ * </p>
  */
 public class ImageDescriptorRegistry {
 
-	private Map<ImageDescriptor, Image> fRegistry= Collections.synchronizedMap(new HashMap<ImageDescriptor, Image>(10));
+	/** Number of image creations between two traces of the image counts */
+	private static final int TRACE_INTERVAL= 100;
+
+	private final ConcurrentHashMap<ImageDescriptor, Image> fRegistry= new ConcurrentHashMap<>(64);
+	private final AtomicInteger fCreatedImages= new AtomicInteger();
 	private Display fDisplay;
 
 	/**
@@ -59,8 +68,19 @@ public class ImageDescriptorRegistry {
 			return result;
 
 		result= descriptor.createImage();
-		if (result != null)
-			fRegistry.put(descriptor, result);
+		if (result == null)
+			return null;
+
+		int created= fCreatedImages.incrementAndGet();
+		if (JavaPlugin.DEBUG_IMAGE_REGISTRY && created % TRACE_INTERVAL == 0)
+			System.out.println("ImageDescriptorRegistry: " + fRegistry.size() + " images, " + created + " created"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		Image existing= fRegistry.putIfAbsent(descriptor, result);
+		if (existing != null) {
+			// another thread created the same image in the meantime
+			result.dispose();
+			return existing;
+		}
 		return result;
 	}
 
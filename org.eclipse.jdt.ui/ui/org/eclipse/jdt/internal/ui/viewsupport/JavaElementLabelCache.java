@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jdt.internal.ui.viewsupport;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.jface.preference.IPreferenceStore;
+import org.eclipse.jface.util.IPropertyChangeListener;
+import org.eclipse.jface.util.PropertyChangeEvent;
+import org.eclipse.jface.viewers.StyledString;
+
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.JavaCore;
+
+import org.eclipse.jdt.ui.JavaElementLabels;
+
+/**
+ * A bounded cache of the labels composed by {@link JavaElementLabels} for Java elements. The cache
+ * is shared by all {@link JavaUILabelProvider}s. Entries are keyed by element handle and rendering
+ * flags and are invalidated by Java element deltas and by changes of the appearance preferences.
+ *
+ * @since 3.14
+ */
+public class JavaElementLabelCache implements IElementChangedListener, IPropertyChangeListener {
+
+	private static final int MAX_SIZE= 2000;
+
+	private static final int CHILDREN_ONLY= IJavaElementDelta.F_CHILDREN | IJavaElementDelta.F_FINE_GRAINED | IJavaElementDelta.F_AST_AFFECTED;
+
+	private static final class Key {
+
+		private final IJavaElement fElement;
+		private final long fFlags;
+		private final boolean fStyled;
+
+		Key(IJavaElement element, long flags, boolean styled) {
+			fElement= element;
+			fFlags= flags;
+			fStyled= styled;
+		}
+
+		@Override
+		public int hashCode() {
+			return fElement.hashCode() ^ (int) (fFlags ^ (fFlags >>> 32)) ^ (fStyled ? 1 : 0);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other= (Key) obj;
+			return fFlags == other.fFlags && fStyled == other.fStyled && fElement.equals(other.fElement);
+		}
+	}
+
+	private final Map<Key, Object> fLabels= new LinkedHashMap<Key, Object>(64, 0.75f, true) {
+		private static final long serialVersionUID= 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+			return size() > MAX_SIZE;
+		}
+	};
+
+	private IPreferenceStore fPreferenceStore;
+
+	public void install(IPreferenceStore store) {
+		fPreferenceStore= store;
+		store.addPropertyChangeListener(this);
+		JavaCore.addElementChangedListener(this, ElementChangedEvent.POST_CHANGE | ElementChangedEvent.POST_RECONCILE);
+	}
+
+	public void dispose() {
+		JavaCore.removeElementChangedListener(this);
+		if (fPreferenceStore != null) {
+			fPreferenceStore.removePropertyChangeListener(this);
+			fPreferenceStore= null;
+		}
+		clear();
+	}
+
+	/**
+	 * Returns the label for a Java element, see {@link JavaElementLabels#getElementLabel(IJavaElement, long)}.
+	 *
+	 * @param element the element to render
+	 * @param flags the rendering flags
+	 * @return the label of the Java element
+	 */
+	public String getElementLabel(IJavaElement element, long flags) {
+		if (!isCacheable(element, flags))
+			return JavaElementLabels.getElementLabel(element, flags);
+
+		Key key= new Key(element, flags, false);
+		String label;
+		synchronized (fLabels) {
+			label= (String) fLabels.get(key);
+		}
+		if (label == null) {
+			label= JavaElementLabels.getElementLabel(element, flags);
+			synchronized (fLabels) {
+				fLabels.put(key, label);
+			}
+		}
+		return label;
+	}
+
+	/**
+	 * Returns the styled label for a Java element, see
+	 * {@link JavaElementLabels#getStyledElementLabel(IJavaElement, long)}. The returned styled
+	 * string is a copy that can be modified by the caller.
+	 *
+	 * @param element the element to render
+	 * @param flags the rendering flags
+	 * @return the label of the Java element
+	 */
+	public StyledString getStyledElementLabel(IJavaElement element, long flags) {
+		if (!isCacheable(element, flags))
+			return JavaElementLabels.getStyledElementLabel(element, flags);
+
+		Key key= new Key(element, flags, true);
+		StyledString label;
+		synchronized (fLabels) {
+			label= (StyledString) fLabels.get(key);
+		}
+		if (label == null) {
+			label= JavaElementLabels.getStyledElementLabel(element, flags);
+			synchronized (fLabels) {
+				fLabels.put(key, label);
+			}
+		}
+		return new StyledString().append(label);
+	}
+
+	private static boolean isCacheable(IJavaElement element, long flags) {
+		// parameter names of binary methods may come from attached Javadoc, which can time out
+		if (element.getElementType() == IJavaElement.METHOD && (flags & JavaElementLabels.M_PARAMETER_NAMES) != 0)
+			return !((IMethod) element).isBinary();
+		return true;
+	}
+
+	public void clear() {
+		synchronized (fLabels) {
+			fLabels.clear();
+		}
+	}
+
+	@Override
+	public void propertyChange(PropertyChangeEvent event) {
+		// the composer reads package name compression and abbreviation settings from the store
+		clear();
+	}
+
+	@Override
+	public void elementChanged(ElementChangedEvent event) {
+		Set<IJavaElement> changed= new HashSet<>();
+		collectChangedElements(event.getDelta(), changed);
+		if (changed.isEmpty())
+			return;
+
+		synchronized (fLabels) {
+			for (Iterator<Key> iter= fLabels.keySet().iterator(); iter.hasNext();) {
+				if (isAffected(iter.next().fElement, changed))
+					iter.remove();
+			}
+		}
+	}
+
+	private static void collectChangedElements(IJavaElementDelta delta, Set<IJavaElement> changed) {
+		if (delta.getKind() != IJavaElementDelta.CHANGED || (delta.getFlags() & ~CHILDREN_ONLY) != 0) {
+			changed.add(delta.getElement());
+			return;
+		}
+		IJavaElementDelta[] children= delta.getAffectedChildren();
+		for (int i= 0; i < children.length; i++) {
+			collectChangedElements(children[i], changed);
+		}
+	}
+
+	private static boolean isAffected(IJavaElement element, Set<IJavaElement> changed) {
+		for (IJavaElement curr= element; curr != null; curr= curr.getParent()) {
+			if (changed.contains(curr))
+				return true;
+		}
+		return false;
+	}
+}
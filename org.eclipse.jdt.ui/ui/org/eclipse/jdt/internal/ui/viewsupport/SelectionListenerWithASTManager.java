@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,8 +10,10 @@
  *******************************************************************************/
 package org.eclipse.jdt.internal.ui.viewsupport;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -19,6 +21,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.PerformanceStats;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 
@@ -45,9 +48,24 @@ import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
 
 /**
  * Infrastructure to share an AST for editor post selection listeners.
+ * <p>
+ * The listeners of an editor are informed by a single job, which is rescheduled on each post
+ * selection with a delay that adapts to the time the listeners recently took, so that fast
+ * selection changes are coalesced when the listeners are expensive. The listeners are informed
+ * one after another in registration order, except for
+ * {@link IConcurrentSelectionListenerWithAST concurrent listeners}, which run in jobs of their
+ * own. The time each listener takes is reported to the
+ * {@link PerformanceStats} service, see the <code>perf/selectionListenerWithAST/listeners</code>
+ * debug option.
+ * </p>
  */
 public class SelectionListenerWithASTManager {
 
+	private static final String PERF_LISTENERS= "org.eclipse.jdt.ui/perf/selectionListenerWithAST/listeners"; //$NON-NLS-1$
+
+	/** Maximum delay in milliseconds before the listeners are informed of a post selection */
+	private static final long MAX_DELAY= 300;
+
 	private static SelectionListenerWithASTManager fgDefault;
 
 	/**
@@ -65,18 +83,48 @@ public class SelectionListenerWithASTManager {
 		private ITextEditor fPart;
 		private ISelectionListener fPostSelectionListener;
 		private ISelectionChangedListener fSelectionListener;
-		private Job fCurrentJob;
-		private ListenerList<ISelectionListenerWithAST> fAstListeners;
 		/**
-		 * Lock to avoid having more than one calculateAndInform job in parallel.
-		 * Only jobs may synchronize on this as otherwise deadlocks are possible.
+		 * The job that informs the listeners. As a job never runs in parallel with itself, at most
+		 * one selection is processed at a time.
 		 */
-		private final Object fJobLock= new Object();
+		private final Job fJob;
+		private ListenerList<ISelectionListenerWithAST> fAstListeners;
+
+		/** Lock for the input and selection to process next */
+		private final Object fPendingLock= new Object();
+		private ITypeRoot fPendingInput;
+		private ITextSelection fPendingSelection;
+
+		/** Moving average of the time in milliseconds the listeners took to process a selection */
+		private volatile long fAverageCost;
 
 		public PartListenerGroup(ITextEditor editorPart) {
 			fPart= editorPart;
-			fCurrentJob= null;
 			fAstListeners= new ListenerList<>(ListenerList.IDENTITY);
+			fAverageCost= 0;
+
+			fJob= new Job(JavaUIMessages.SelectionListenerWithASTManager_job_title) {
+				@Override
+				public IStatus run(IProgressMonitor monitor) {
+					if (monitor == null) {
+						monitor= new NullProgressMonitor();
+					}
+					ITypeRoot input;
+					ITextSelection selection;
+					synchronized (fPendingLock) {
+						input= fPendingInput;
+						selection= fPendingSelection;
+						fPendingInput= null;
+						fPendingSelection= null;
+					}
+					if (input == null) {
+						return Status.OK_STATUS;
+					}
+					return calculateASTandInform(input, selection, monitor);
+				}
+			};
+			fJob.setPriority(Job.DECORATE);
+			fJob.setSystem(true);
 
 			fSelectionListener= new ISelectionChangedListener() {
 				@Override
@@ -127,9 +175,7 @@ public class SelectionListenerWithASTManager {
 		 * @param selection the selection
 		 */
 		public void fireSelectionChanged(final ITextSelection selection) {
-			if (fCurrentJob != null) {
-				fCurrentJob.cancel();
-			}
+			fJob.cancel();
 		}
 
 		/**
@@ -138,30 +184,17 @@ public class SelectionListenerWithASTManager {
 		 * @param selection the selection
 		 */
 		public void firePostSelectionChanged(final ITextSelection selection) {
-			if (fCurrentJob != null) {
-				fCurrentJob.cancel();
-			}
+			fJob.cancel();
 			IJavaElement input= EditorUtility.getEditorInputJavaElement(fPart, false);
 			if (!(input instanceof ITypeRoot)) {
 				return;
 			}
-			final ITypeRoot typeRoot= (ITypeRoot) input;
-
-
-			fCurrentJob= new Job(JavaUIMessages.SelectionListenerWithASTManager_job_title) {
-				@Override
-				public IStatus run(IProgressMonitor monitor) {
-					if (monitor == null) {
-						monitor= new NullProgressMonitor();
-					}
-					synchronized (fJobLock) {
-						return calculateASTandInform(typeRoot, selection, monitor);
-					}
-				}
-			};
-			fCurrentJob.setPriority(Job.DECORATE);
-			fCurrentJob.setSystem(true);
-			fCurrentJob.schedule();
+			synchronized (fPendingLock) {
+				fPendingInput= (ITypeRoot) input;
+				fPendingSelection= selection;
+			}
+			// a running job is rescheduled once it is done
+			fJob.schedule(Math.min(fAverageCost, MAX_DELAY));
 		}
 
 		protected final IStatus calculateASTandInform(ITypeRoot input, ITextSelection selection, IProgressMonitor monitor) {
@@ -173,24 +206,79 @@ public class SelectionListenerWithASTManager {
 				CompilationUnit astRoot= SharedASTProvider.getAST(input, SharedASTProvider.WAIT_ACTIVE_ONLY, monitor);
 
 				if (astRoot != null && !monitor.isCanceled()) {
-					Iterator<ISelectionListenerWithAST> listeners;
-					synchronized (PartListenerGroup.this) { // sync probably doesn't make sense here...
-						listeners= fAstListeners.iterator();
-					}
-					while (listeners.hasNext()) {
-						ISelectionListenerWithAST listener= listeners.next();
-						listener.selectionChanged(fPart, selection, astRoot);
-						if (monitor.isCanceled()) {
-							return Status.CANCEL_STATUS;
-						}
+					List<ISelectionListenerWithAST> listeners= new ArrayList<>();
+					for (Iterator<ISelectionListenerWithAST> iter= fAstListeners.iterator(); iter.hasNext();) {
+						listeners.add(iter.next());
 					}
-					return Status.OK_STATUS;
+					long start= System.currentTimeMillis();
+					informListeners(listeners, selection, astRoot, monitor);
+					fAverageCost= (3 * fAverageCost + System.currentTimeMillis() - start) / 4;
+					return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
 				}
 			} catch (OperationCanceledException e) {
 				// thrown when canceling the AST creation
 			}
 			return Status.CANCEL_STATUS;
 		}
+
+		/**
+		 * Informs the listeners in registration order. Listeners that are
+		 * {@link IConcurrentSelectionListenerWithAST concurrent} are informed in jobs of their own,
+		 * all others in the calling thread. Returns only when all listeners are done, so that a
+		 * listener is never informed of the next selection while it still processes this one.
+		 *
+		 * @param listeners the listeners to inform
+		 * @param selection the selection
+		 * @param astRoot the AST of the editor input
+		 * @param monitor the progress monitor of the job informing the listeners
+		 */
+		private void informListeners(List<ISelectionListenerWithAST> listeners, final ITextSelection selection, final CompilationUnit astRoot, IProgressMonitor monitor) {
+			List<Job> jobs= new ArrayList<>();
+			for (int i= 0; i < listeners.size() && !monitor.isCanceled(); i++) {
+				final ISelectionListenerWithAST listener= listeners.get(i);
+				if (!(listener instanceof IConcurrentSelectionListenerWithAST)) {
+					informListener(listener, selection, astRoot);
+					continue;
+				}
+				Job job= new Job(JavaUIMessages.SelectionListenerWithASTManager_job_title) {
+					@Override
+					protected IStatus run(IProgressMonitor listenerMonitor) {
+						if (listenerMonitor != null && listenerMonitor.isCanceled())
+							return Status.CANCEL_STATUS;
+						informListener(listener, selection, astRoot);
+						return Status.OK_STATUS;
+					}
+				};
+				job.setPriority(Job.DECORATE);
+				job.setSystem(true);
+				job.schedule();
+				jobs.add(job);
+			}
+
+			boolean interrupted= false;
+			for (int i= 0; i < jobs.size(); i++) {
+				Job job= jobs.get(i);
+				if (monitor.isCanceled())
+					job.cancel();
+				while (true) {
+					try {
+						job.join();
+						break;
+					} catch (InterruptedException e) {
+						interrupted= true;
+					}
+				}
+			}
+			if (interrupted)
+				Thread.currentThread().interrupt();
+		}
+
+		private void informListener(ISelectionListenerWithAST listener, ITextSelection selection, CompilationUnit astRoot) {
+			PerformanceStats stats= PerformanceStats.getStats(PERF_LISTENERS, listener);
+			stats.startRun();
+			listener.selectionChanged(fPart, selection, astRoot);
+			stats.endRun();
+		}
 	}
 
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2011 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -24,12 +24,17 @@ import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.jface.preference.IPreferenceStore;
 
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.IViewportListener;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.TextSelection;
@@ -72,7 +77,9 @@ import org.eclipse.jdt.internal.ui.JavaPlugin;
 import org.eclipse.jdt.internal.ui.actions.SelectionConverter;
 import org.eclipse.jdt.internal.ui.javaeditor.EditorUtility;
 import org.eclipse.jdt.internal.ui.javaeditor.JavaEditor;
+import org.eclipse.jdt.internal.ui.javaeditor.LargeFileMode;
 import org.eclipse.jdt.internal.ui.text.DocumentCharacterIterator;
+import org.eclipse.jdt.internal.ui.text.folding.FoldingMessages;
 
 /**
  * Updates the projection model of a class file or compilation unit.
@@ -101,6 +108,8 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		private boolean fHasHeaderComment;
 		private LinkedHashMap<JavaProjectionAnnotation, Position> fMap= new LinkedHashMap<>();
 		private IScanner fScanner;
+		/** The range to compute the folding structure for, <code>null</code> for the whole input */
+		private IRegion fRange;
 
 		private FoldingStructureComputationContext(IDocument document, ProjectionAnnotationModel model, boolean allowCollapsing, IScanner scanner) {
 			Assert.isNotNull(document);
@@ -360,11 +369,13 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 				if (shouldIgnoreDelta(e.getDelta().getCompilationUnitAST(), delta))
 					return;
 
-				fUpdatingCount++;
-				try {
-					update(createContext(false));
-				} finally {
-					fUpdatingCount--;
+				synchronized (fUpdateLock) {
+					fUpdatingCount++;
+					try {
+						update(createContext(false));
+					} finally {
+						fUpdatingCount--;
+					}
 				}
 			}
 		}
@@ -701,6 +712,7 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 
 	/* context and listeners */
 	private JavaEditor fEditor;
+	private ProjectionViewer fViewer;
 	private ProjectionListener fProjectionListener;
 	private IJavaElement fInput;
 	private IElementChangedListener fElementListener;
@@ -724,7 +736,59 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 	 */
 	private IScanner fSharedScanner= ToolFactory.createScanner(true, false, false, false);
 
-	private volatile int fUpdatingCount= 0;
+	/**
+	 * Number of running updates that may use the shared scanner, only changed while holding
+	 * {@link #fUpdateLock}.
+	 */
+	private int fUpdatingCount= 0;
+
+	/**
+	 * Lock that serializes the updates of the folding structure triggered by the reconciler, by
+	 * {@link #initialize()} and by the viewport job.
+	 * @since 3.14
+	 */
+	private final Object fUpdateLock= new Object();
+
+	/**
+	 * The visible lines of the viewer plus a margin, updated in the UI thread.
+	 * @since 3.14
+	 */
+	private volatile IRegion fVisibleRange;
+
+	/**
+	 * The range of the last folding structure computation, or <code>null</code> if the structure
+	 * was computed for the whole input.
+	 * @since 3.14
+	 */
+	private volatile IRegion fComputedRange;
+
+	/**
+	 * Viewport listener that extends the folding structure of large files when scrolling.
+	 * @since 3.14
+	 */
+	private final IViewportListener fViewportListener= new IViewportListener() {
+		@Override
+		public void viewportChanged(int verticalOffset) {
+			handleViewportChanged();
+		}
+	};
+
+	/**
+	 * Job that extends the folding structure of large files to the visible range. It does not run
+	 * in the UI thread, so that scrolling does not wait for an update of the reconciler.
+	 * @since 3.14
+	 */
+	private final Job fViewportJob= new Job(FoldingMessages.DefaultJavaFoldingStructureProvider_viewportJob) {
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			synchronized (fUpdateLock) {
+				// the shared scanner is only used by counted updates, so this one uses its own
+				if (!monitor.isCanceled() && fElementListener != null)
+					update(createContext(false));
+			}
+			return Status.OK_STATUS;
+		}
+	};
 
 	/**
 	 * Creates a new folding provider. It must be
@@ -735,6 +799,8 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 	 * </p>
 	 */
 	public DefaultJavaFoldingStructureProvider() {
+		fViewportJob.setSystem(true);
+		fViewportJob.setPriority(Job.DECORATE);
 	}
 
 	/**
@@ -756,6 +822,8 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		if (editor instanceof JavaEditor) {
 			fProjectionListener= new ProjectionListener(viewer);
 			fEditor= (JavaEditor)editor;
+			fViewer= viewer;
+			fViewer.addViewportListener(fViewportListener);
 		}
 	}
 
@@ -778,7 +846,11 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 			handleProjectionDisabled();
 			fProjectionListener.dispose();
 			fProjectionListener= null;
+			fViewer.removeViewportListener(fViewportListener);
+			fViewer= null;
 			fEditor= null;
+			fVisibleRange= null;
+			fComputedRange= null;
 		}
 	}
 
@@ -809,6 +881,7 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		handleProjectionDisabled();
 
 		if (isInstalled()) {
+			fVisibleRange= LargeFileMode.computeRange(fViewer);
 			initialize();
 			fElementListener= new ElementChangedListener();
 			JavaCore.addElementChangedListener(fElementListener);
@@ -826,6 +899,7 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 	 * </p>
 	 */
 	protected void handleProjectionDisabled() {
+		fViewportJob.cancel();
 		if (fElementListener != null) {
 			JavaCore.removeElementChangedListener(fElementListener);
 			fElementListener= null;
@@ -837,11 +911,13 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 	 */
 	@Override
 	public final void initialize() {
-		fUpdatingCount++;
-		try {
-			update(createInitialContext());
-		} finally {
-			fUpdatingCount--;
+		synchronized (fUpdateLock) {
+			fUpdatingCount++;
+			try {
+				update(createInitialContext());
+			} finally {
+				fUpdatingCount--;
+			}
 		}
 	}
 
@@ -868,7 +944,28 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		if (fUpdatingCount == 1)
 			scanner= fSharedScanner; // reuse scanner
 
-		return new FoldingStructureComputationContext(doc, model, allowCollapse, scanner);
+		FoldingStructureComputationContext context= new FoldingStructureComputationContext(doc, model, allowCollapse, scanner);
+		if (LargeFileMode.isLargeFile(doc))
+			context.fRange= fVisibleRange;
+		return context;
+	}
+
+	/**
+	 * Updates the visible range and schedules the extension of the folding structure of a large
+	 * file if the visible lines are no longer inside the range of the last computation.
+	 *
+	 * @since 3.14
+	 */
+	private void handleViewportChanged() {
+		ProjectionViewer viewer= fViewer;
+		if (viewer == null)
+			return;
+
+		IRegion range= LargeFileMode.computeRange(viewer);
+		fVisibleRange= range;
+		IRegion computedRange= fComputedRange;
+		if (range != null && computedRange != null && fElementListener != null && !LargeFileMode.coversVisibleLines(computedRange, viewer))
+			fViewportJob.schedule();
 	}
 
 	private IJavaElement getInputElement() {
@@ -954,8 +1051,12 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		while (iter.hasNext()) {
 			List<Tuple> list= iter.next();
 			int size= list.size();
-			for (int i= 0; i < size; i++)
-				deletions.add(list.get(i).annotation);
+			for (int i= 0; i < size; i++) {
+				Tuple tuple= list.get(i);
+				// keep the folding regions of large files that were not computed this time
+				if (ctx.fRange == null || LargeFileMode.intersects(ctx.fRange, tuple.position.getOffset(), tuple.position.getLength()))
+					deletions.add(tuple.annotation);
+			}
 		}
 
 		match(deletions, additions, updates, ctx);
@@ -963,6 +1064,7 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		Annotation[] deletedArray= deletions.toArray(new Annotation[deletions.size()]);
 		Annotation[] changedArray= updates.toArray(new Annotation[updates.size()]);
 		ctx.getModel().modifyAnnotations(deletedArray, additions, changedArray);
+		fComputedRange= ctx.fRange;
 
 		ctx.fScanner.setSource(null);
     }
@@ -986,6 +1088,12 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		for (int i= 0; i < elements.length; i++) {
 			IJavaElement element= elements[i];
 
+			if (ctx.fRange != null && element instanceof ISourceReference && !isTopLevelType(element)) {
+				ISourceRange range= ((ISourceReference) element).getSourceRange();
+				if (SourceRange.isAvailable(range) && !LargeFileMode.intersects(ctx.fRange, range.getOffset(), range.getLength()))
+					continue;
+			}
+
 			computeFoldingStructure(element, ctx);
 
 			if (element instanceof IParent) {
@@ -995,6 +1103,18 @@ public class DefaultJavaFoldingStructureProvider implements IJavaFoldingStructur
 		}
 	}
 
+	/**
+	 * Returns <code>true</code> if the element is a top-level type of the input. Top-level types are
+	 * always visited, since the first one carries the header comment.
+	 *
+	 * @param element the element
+	 * @return <code>true</code> if the element is a top-level type
+	 * @since 3.14
+	 */
+	private boolean isTopLevelType(IJavaElement element) {
+		return element.getElementType() == IJavaElement.TYPE && element.getParent() == fInput;
+	}
+
 	/**
 	 * Computes the folding structure for a given {@link IJavaElement java element}. Computed
 	 * projection annotations are
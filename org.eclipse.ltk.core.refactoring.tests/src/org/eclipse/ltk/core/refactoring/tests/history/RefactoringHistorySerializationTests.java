@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2008 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -441,4 +441,32 @@ public class RefactoringHistorySerializationTests extends TestCase {
 		compareWrittenDescriptor(session, true, xml);
 	}
 
-}
\ No newline at end of file
+	public void testWriteReadLargeSession() throws Exception {
+		int count= 10000;
+		RefactoringDescriptor[] descriptors= new RefactoringDescriptor[count];
+		for (int index= 0; index < count; index++) {
+			MockRefactoringDescriptor descriptor= new MockRefactoringDescriptor("test0", "Mock refactoring " + index, null, RefactoringDescriptor.STRUCTURAL_CHANGE);
+			descriptor.setTimeStamp(index + 1);
+			Map<String, String> arguments= descriptor.getArguments();
+			arguments.put("arg0", "value <" + index + ">");
+			arguments.put("arg1", "\"quoted\" & 'escaped'");
+			descriptors[index]= descriptor;
+		}
+		RefactoringSessionDescriptor session= new RefactoringSessionDescriptor(descriptors, "1.0", null);
+		ByteArrayOutputStream output= new ByteArrayOutputStream();
+		RefactoringCore.getHistoryService().writeRefactoringSession(session, output, true);
+		RefactoringHistory history= RefactoringCore.getHistoryService().readRefactoringHistory(new ByteArrayInputStream(output.toByteArray()), RefactoringDescriptor.NONE);
+		RefactoringDescriptorProxy[] proxies= history.getDescriptors();
+		assertEquals("The number of refactoring descriptors is incorrect.", count, proxies.length);
+		for (int index= 0; index < count; index+= 997) {
+			RefactoringDescriptor expected= descriptors[index];
+			RefactoringDescriptor actual= null;
+			for (int offset= 0; offset < proxies.length && actual == null; offset++) {
+				if (proxies[offset].getTimeStamp() == expected.getTimeStamp())
+					actual= proxies[offset].requestDescriptor(null);
+			}
+			assertNotNull("Refactoring descriptor not found.", actual);
+			assertEquals("Expected refactoring descriptor is not equal to actual one:", expected.toString(), actual.toString());
+		}
+	}
+}
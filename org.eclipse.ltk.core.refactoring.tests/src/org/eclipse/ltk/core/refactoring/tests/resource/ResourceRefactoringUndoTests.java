@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2015 IBM Corporation and others.
+ * Copyright (c) 2008, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -315,6 +315,37 @@ public class ResourceRefactoringUndoTests extends TestCase {
 		assertFalse("Redo delete failed", testLinkedFolder.exists());
 	}
 
+	public void testFolderDeleteWithMarkersUndoRedoLTK() throws ExecutionException, CoreException {
+		IFile file= fProject.createFile(testSubFolder, TEST_FILE_NAME, CONTENT);
+		IFolder nestedFolder= testSubFolder.getFolder(TEST_FOLDER_NAME);
+		nestedFolder.create(true, true, getMonitor());
+		IFile nestedFile= fProject.createFile(nestedFolder, TEST_NEWFILE_NAME, CONTENT);
+		IResource[] resources= new IResource[] { testSubFolder, file, nestedFolder, nestedFile };
+		for (int i= 0; i < resources.length; i++) {
+			IMarker marker= resources[i].createMarker(IMarker.TASK);
+			marker.setAttribute(IMarker.MESSAGE, resources[i].getName());
+		}
+
+		RefactoringContribution deleteContribution= RefactoringCore.getRefactoringContribution(DeleteResourcesDescriptor.ID);
+		DeleteResourcesDescriptor desc= (DeleteResourcesDescriptor) deleteContribution.createDescriptor();
+		desc.setResourcePaths(new IPath[] { testSubFolder.getFullPath() });
+
+		PerformRefactoringOperation op= new PerformRefactoringOperation(desc.createRefactoringContext(new RefactoringStatus()), CheckConditionsOperation.ALL_CONDITIONS);
+
+		execute(op);
+		assertFalse("Folder delete failed", testSubFolder.exists());
+		undo();
+		assertTrue("Folder recreation failed", testSubFolder.exists());
+		// each marker must be restored exactly once on its own resource
+		for (int i= 0; i < resources.length; i++) {
+			IMarker[] markers= resources[i].findMarkers(IMarker.TASK, false, IResource.DEPTH_ZERO);
+			assertEquals("Markers not restored on " + resources[i].getName(), 1, markers.length);
+			assertEquals(resources[i].getName(), markers[0].getAttribute(IMarker.MESSAGE));
+		}
+		redo();
+		assertFalse("Redo delete failed", testSubFolder.exists());
+	}
+
 	public void testProjectDeleteUndoRedoLTK() throws ExecutionException, CoreException {
 		RefactoringContribution renameContribution= RefactoringCore.getRefactoringContribution(DeleteResourcesDescriptor.ID);
 		DeleteResourcesDescriptor desc= (DeleteResourcesDescriptor) renameContribution.createDescriptor();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2011 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,6 +14,7 @@ package org.eclipse.ltk.core.refactoring;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.PerformanceStats;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
 import org.eclipse.core.resources.IWorkspaceRunnable;
@@ -48,6 +49,9 @@ import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryServi
  */
 public class PerformRefactoringHistoryOperation implements IWorkspaceRunnable {
 
+	/** Reports the time to replay a refactoring, per refactoring id */
+	private static final String PERF_PERFORM_REFACTORING= "org.eclipse.ltk.core.refactoring/perf/history/performRefactoring"; //$NON-NLS-1$
+
 	/** The status of the execution */
 	private RefactoringStatus fExecutionStatus= new RefactoringStatus();
 
@@ -218,6 +222,8 @@ public class PerformRefactoringHistoryOperation implements IWorkspaceRunnable {
 				if (descriptor != null) {
 					RefactoringContext context= null;
 					RefactoringStatus status= new RefactoringStatus();
+					final PerformanceStats stats= PerformanceStats.getStats(PERF_PERFORM_REFACTORING, descriptor.getID());
+					stats.startRun(descriptor.getDescription());
 					try {
 						try {
 							context= createRefactoringContext(descriptor, status, new SubProgressMonitor(monitor, 30, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL));
@@ -243,6 +249,7 @@ public class PerformRefactoringHistoryOperation implements IWorkspaceRunnable {
 						fExecutionStatus.merge(status);
 						if (context != null)
 							context.dispose();
+						stats.endRun();
 					}
 				}
 			}
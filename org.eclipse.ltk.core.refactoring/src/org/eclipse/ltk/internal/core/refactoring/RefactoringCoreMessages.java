@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -212,6 +212,8 @@ public final class RefactoringCoreMessages extends NLS {
 
 	public static String RefactoringSessionReader_unsupported_version_information;
 
+	public static String RefactoringSessionWriter_invalid_argument_name;
+
 	public static String RefactoringUndoContext_label;
 
 	public static String Resources_fileModified;
@@ -0,0 +1,324 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+
+import org.eclipse.ltk.core.refactoring.IRefactoringCoreStatusCodes;
+import org.eclipse.ltk.core.refactoring.RefactoringDescriptor;
+
+/**
+ * Streaming writer for XML-based refactoring sessions.
+ * <p>
+ * Produces the same output as writing the document of a
+ * {@link RefactoringSessionTransformer}, but writes each refactoring as soon as
+ * it is complete, so that the memory needed does not depend on the number of
+ * refactorings in the session.
+ * </p>
+ *
+ * @since 3.9
+ */
+public final class RefactoringSessionWriter {
+
+	/** The XML declaration */
+	private static final String XML_VERSION= "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"; //$NON-NLS-1$
+
+	/** The line delimiter */
+	private static final String LINE_DELIMITER= System.lineSeparator();
+
+	/** Should project information be included? */
+	private final boolean fProjects;
+
+	/**
+	 * The arguments of the current refactoring in ascending order of their
+	 * names, or <code>null</code>
+	 */
+	private Map<String, String> fRefactoringArguments= null;
+
+	/** Is a session being written? */
+	private boolean fSession= false;
+
+	/** Has the start tag of the current session been closed? */
+	private boolean fSessionHasChildren= false;
+
+	/** The writer to write to */
+	private final Writer fWriter;
+
+	/**
+	 * Creates a new refactoring session writer.
+	 *
+	 * @param writer
+	 *            the writer to write to
+	 * @param projects
+	 *            <code>true</code> to include project information,
+	 *            <code>false</code> otherwise
+	 */
+	public RefactoringSessionWriter(final Writer writer, final boolean projects) {
+		Assert.isNotNull(writer);
+		fWriter= writer;
+		fProjects= projects;
+	}
+
+	/**
+	 * Begins a refactoring session.
+	 * <p>
+	 * Calls to {@link #beginSession(String, String)} must be balanced with
+	 * calls to {@link #endSession()} once the session has been written
+	 * successfully. If writing fails, the session must not be ended, so that
+	 * the output is not mistaken for a complete session.
+	 * </p>
+	 *
+	 * @param comment
+	 *            the comment associated with the refactoring session, or
+	 *            <code>null</code>
+	 * @param version
+	 *            the non-empty version tag
+	 * @throws IOException
+	 *             if an error occurs while writing
+	 */
+	public void beginSession(final String comment, final String version) throws IOException {
+		Assert.isTrue(!fSession);
+		final Map<String, String> arguments= new TreeMap<>();
+		arguments.put(IRefactoringSerializationConstants.ATTRIBUTE_VERSION, version);
+		if (comment != null && !"".equals(comment)) //$NON-NLS-1$
+			arguments.put(IRefactoringSerializationConstants.ATTRIBUTE_COMMENT, comment);
+		fWriter.write(XML_VERSION);
+		fWriter.write(LINE_DELIMITER);
+		writeStartTag(IRefactoringSerializationConstants.ELEMENT_SESSION, arguments);
+		fSession= true;
+		fSessionHasChildren= false;
+	}
+
+	/**
+	 * Begins a refactoring specified by the given arguments.
+	 * <p>
+	 * Calls to
+	 * {@link #beginRefactoring(String, long, String, String, String, int)}
+	 * must be balanced with calls to {@link #endRefactoring()}.
+	 * </p>
+	 *
+	 * @param id
+	 *            the unique identifier of the refactoring
+	 * @param stamp
+	 *            the time stamp of the refactoring, or <code>-1</code>
+	 * @param project
+	 *            the non-empty name of the project this refactoring is
+	 *            associated with, or <code>null</code>
+	 * @param description
+	 *            a human-readable description of the refactoring
+	 * @param comment
+	 *            the comment associated with the refactoring, or
+	 *            <code>null</code>
+	 * @param flags
+	 *            the flags associated with refactoring
+	 */
+	public void beginRefactoring(final String id, final long stamp, final String project, final String description, final String comment, final int flags) {
+		Assert.isNotNull(id);
+		Assert.isNotNull(description);
+		Assert.isTrue(flags >= RefactoringDescriptor.NONE);
+		Assert.isTrue(fRefactoringArguments == null);
+		fRefactoringArguments= new TreeMap<>();
+		fRefactoringArguments.put(IRefactoringSerializationConstants.ATTRIBUTE_ID, id);
+		if (stamp >= 0)
+			fRefactoringArguments.put(IRefactoringSerializationConstants.ATTRIBUTE_STAMP, Long.toString(stamp));
+		if (flags != RefactoringDescriptor.NONE)
+			fRefactoringArguments.put(IRefactoringSerializationConstants.ATTRIBUTE_FLAGS, String.valueOf(flags));
+		fRefactoringArguments.put(IRefactoringSerializationConstants.ATTRIBUTE_DESCRIPTION, description);
+		if (comment != null && !"".equals(comment)) //$NON-NLS-1$
+			fRefactoringArguments.put(IRefactoringSerializationConstants.ATTRIBUTE_COMMENT, comment);
+		if (project != null && fProjects)
+			fRefactoringArguments.put(IRefactoringSerializationConstants.ATTRIBUTE_PROJECT, project);
+	}
+
+	/**
+	 * Creates a refactoring argument with the specified name and value.
+	 * <p>
+	 * If no refactoring is currently processed, this call has no effect.
+	 * </p>
+	 *
+	 * @param name
+	 *            the non-empty name of the argument
+	 * @param value
+	 *            the value of the argument
+	 *
+	 * @throws CoreException
+	 *             if the name is not a valid XML attribute name
+	 */
+	public void createArgument(final String name, final String value) throws CoreException {
+		Assert.isNotNull(name);
+		Assert.isTrue(!"".equals(name)); //$NON-NLS-1$
+		Assert.isNotNull(value);
+		if (fRefactoringArguments != null) {
+			if (!isValidName(name))
+				throw new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), IRefactoringCoreStatusCodes.REFACTORING_HISTORY_FORMAT_ERROR, Messages.format(RefactoringCoreMessages.RefactoringSessionWriter_invalid_argument_name, name), null));
+			fRefactoringArguments.put(name, value);
+		}
+	}
+
+	/**
+	 * Tells whether the given string is a valid XML name, as required for
+	 * attribute names by the DOM of a {@link RefactoringSessionTransformer}.
+	 *
+	 * @param name
+	 *            the non-empty name
+	 * @return <code>true</code> if the name matches the <code>Name</code>
+	 *         production of XML 1.0
+	 */
+	private static boolean isValidName(final String name) {
+		for (int index= 0; index < name.length();) {
+			final int character= name.codePointAt(index);
+			if (!isNameStartChar(character) && (index == 0 || !isNameChar(character)))
+				return false;
+			index+= Character.charCount(character);
+		}
+		return true;
+	}
+
+	private static boolean isNameStartChar(final int character) {
+		return character == ':' || character == '_' || (character >= 'A' && character <= 'Z') || (character >= 'a' && character <= 'z')
+				|| (character >= 0xC0 && character <= 0xD6) || (character >= 0xD8 && character <= 0xF6) || (character >= 0xF8 && character <= 0x2FF)
+				|| (character >= 0x370 && character <= 0x37D) || (character >= 0x37F && character <= 0x1FFF) || (character >= 0x200C && character <= 0x200D)
+				|| (character >= 0x2070 && character <= 0x218F) || (character >= 0x2C00 && character <= 0x2FEF) || (character >= 0x3001 && character <= 0xD7FF)
+				|| (character >= 0xF900 && character <= 0xFDCF) || (character >= 0xFDF0 && character <= 0xFFFD) || (character >= 0x10000 && character <= 0xEFFFF);
+	}
+
+	private static boolean isNameChar(final int character) {
+		return character == '-' || character == '.' || (character >= '0' && character <= '9') || character == 0xB7
+				|| (character >= 0x300 && character <= 0x36F) || (character >= 0x203F && character <= 0x2040);
+	}
+
+	/**
+	 * Ends the current refactoring and writes it.
+	 * <p>
+	 * If no refactoring is currently processed, this call has no effect.
+	 * </p>
+	 *
+	 * @throws IOException
+	 *             if an error occurs while writing
+	 */
+	public void endRefactoring() throws IOException {
+		if (fRefactoringArguments == null)
+			return;
+		final Map<String, String> arguments= fRefactoringArguments;
+		fRefactoringArguments= null;
+		if (fSession && !fSessionHasChildren) {
+			fWriter.write('>');
+			fSessionHasChildren= true;
+		}
+		fWriter.write(LINE_DELIMITER);
+		writeStartTag(IRefactoringSerializationConstants.ELEMENT_REFACTORING, arguments);
+		fWriter.write("/>"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ends the current refactoring session.
+	 * <p>
+	 * If no refactoring session is currently processed, this call has no
+	 * effect.
+	 * </p>
+	 *
+	 * @throws IOException
+	 *             if an error occurs while writing
+	 */
+	public void endSession() throws IOException {
+		if (!fSession)
+			return;
+		fSession= false;
+		if (fSessionHasChildren) {
+			fWriter.write(LINE_DELIMITER);
+			fWriter.write("</"); //$NON-NLS-1$
+			fWriter.write(IRefactoringSerializationConstants.ELEMENT_SESSION);
+			fWriter.write('>');
+		} else {
+			fWriter.write("/>"); //$NON-NLS-1$
+		}
+		fWriter.flush();
+	}
+
+	private void writeStartTag(final String name, final Map<String, String> arguments) throws IOException {
+		fWriter.write('<');
+		fWriter.write(name);
+		for (final Iterator<Entry<String, String>> iterator= arguments.entrySet().iterator(); iterator.hasNext();) {
+			final Entry<String, String> entry= iterator.next();
+			fWriter.write(' ');
+			fWriter.write(entry.getKey());
+			fWriter.write("=\""); //$NON-NLS-1$
+			fWriter.write(getEscaped(entry.getValue()));
+			fWriter.write('"');
+		}
+	}
+
+	/**
+	 * Returns the given string with the special XML characters replaced by
+	 * character references.
+	 *
+	 * @param string
+	 *            the string to escape
+	 * @return the escaped string
+	 */
+	public static String getEscaped(final String string) {
+		StringBuffer result= null;
+		final int length= string.length();
+		for (int index= 0; index < length; index++) {
+			final char character= string.charAt(index);
+			final String replacement= getReplacement(character);
+			if (replacement != null) {
+				if (result == null) {
+					result= new StringBuffer(length + 10);
+					result.append(string, 0, index);
+				}
+				result.append('&');
+				result.append(replacement);
+				result.append(';');
+			} else if (result != null) {
+				result.append(character);
+			}
+		}
+		return result != null ? result.toString() : string;
+	}
+
+	private static String getReplacement(final char character) {
+		// Encode special XML characters into the equivalent character references.
+		// The first five are defined by default for all XML documents.
+		// The next three (#xD, #xA, #x9) are encoded to avoid them
+		// being converted to spaces on deserialization
+		// (fixes bug 93720)
+		switch (character) {
+			case '<':
+				return "lt"; //$NON-NLS-1$
+			case '>':
+				return "gt"; //$NON-NLS-1$
+			case '"':
+				return "quot"; //$NON-NLS-1$
+			case '\'':
+				return "apos"; //$NON-NLS-1$
+			case '&':
+				return "amp"; //$NON-NLS-1$
+			case '\r':
+				return "#x0D"; //$NON-NLS-1$
+			case '\n':
+				return "#x0A"; //$NON-NLS-1$
+			case '\u0009':
+				return "#x09"; //$NON-NLS-1$
+		}
+		return null;
+	}
+}
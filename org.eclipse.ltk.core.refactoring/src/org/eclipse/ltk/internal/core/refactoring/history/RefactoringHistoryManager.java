@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@ package org.eclipse.ltk.internal.core.refactoring.history;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -81,6 +82,7 @@ import org.eclipse.ltk.internal.core.refactoring.RefactoringCoreMessages;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringSessionReader;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringSessionTransformer;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringSessionWriter;
 
 /**
  * Manager for persistable refactoring histories.
@@ -656,50 +658,8 @@ public final class RefactoringHistoryManager {
 			print(sb.toString());
 	}
 
-		private static void appendEscapedChar(StringBuffer buffer, char c) {
-			String replacement= getReplacement(c);
-			if (replacement != null) {
-				buffer.append('&');
-				buffer.append(replacement);
-				buffer.append(';');
-			} else {
-				buffer.append(c);
-			}
-		}
-
 		private static String getEscaped(String s) {
-			StringBuffer result= new StringBuffer(s.length() + 10);
-			for (int i= 0; i < s.length(); ++i) {
-				appendEscapedChar(result, s.charAt(i));
-			}
-			return result.toString();
-		}
-
-		private static String getReplacement(char c) {
-			// Encode special XML characters into the equivalent character references.
-			// The first five are defined by default for all XML documents.
-			// The next three (#xD, #xA, #x9) are encoded to avoid them
-			// being converted to spaces on deserialization
-			// (fixes bug 93720)
-			switch (c) {
-				case '<':
-					return "lt"; //$NON-NLS-1$
-				case '>':
-					return "gt"; //$NON-NLS-1$
-				case '"':
-					return "quot"; //$NON-NLS-1$
-				case '\'':
-					return "apos"; //$NON-NLS-1$
-				case '&':
-					return "amp"; //$NON-NLS-1$
-				case '\r':
-					return "#x0D"; //$NON-NLS-1$
-				case '\n':
-					return "#x0A"; //$NON-NLS-1$
-				case '\u0009':
-					return "#x09"; //$NON-NLS-1$
-			}
-			return null;
+			return RefactoringSessionWriter.getEscaped(s);
 		}
 	}
 
@@ -718,35 +678,35 @@ public final class RefactoringHistoryManager {
 	 *             descriptor
 	 */
 	public static void writeRefactoringSession(final OutputStream stream, final RefactoringSessionDescriptor descriptor, final boolean stamps) throws CoreException {
-		final RefactoringSessionTransformer transformer= new RefactoringSessionTransformer(true);
+		// stream the session instead of building a document of all refactorings first
+		final Writer writer= new BufferedWriter(new OutputStreamWriter(stream, Charset.forName("UTF-8"))); //$NON-NLS-1$
+		final RefactoringSessionWriter sessionWriter= new RefactoringSessionWriter(writer, true);
 		final RefactoringDescriptor[] descriptors= descriptor.getRefactorings();
 		try {
-			transformer.beginSession(descriptor.getComment(), descriptor.getVersion());
+			sessionWriter.beginSession(descriptor.getComment(), descriptor.getVersion());
 			for (int index= 0; index < descriptors.length; index++) {
 				final RefactoringDescriptor current= descriptors[index];
 				if (current != null) {
-					try {
-						long stamp= stamps ? current.getTimeStamp() : -1;
-						transformer.beginRefactoring(current.getID(), stamp, current.getProject(), current.getDescription(), current.getComment(), current.getFlags());
-						final Map<String, String> arguments= getArgumentMap(current);
-						if (arguments != null) {
-							checkArgumentMap(arguments);
-							for (final Iterator<Entry<String, String>> iterator= arguments.entrySet().iterator(); iterator.hasNext();) {
-								final Entry<String, String> entry= iterator.next();
-								transformer.createArgument(entry.getKey(), entry.getValue());
-							}
+					final Map<String, String> arguments= getArgumentMap(current);
+					if (arguments != null)
+						checkArgumentMap(arguments);
+					long stamp= stamps ? current.getTimeStamp() : -1;
+					sessionWriter.beginRefactoring(current.getID(), stamp, current.getProject(), current.getDescription(), current.getComment(), current.getFlags());
+					if (arguments != null) {
+						for (final Iterator<Entry<String, String>> iterator= arguments.entrySet().iterator(); iterator.hasNext();) {
+							final Entry<String, String> entry= iterator.next();
+							sessionWriter.createArgument(entry.getKey(), entry.getValue());
 						}
-					} finally {
-						transformer.endRefactoring();
 					}
+					sessionWriter.endRefactoring();
 				}
 			}
-		} finally {
-			transformer.endSession();
+			// only close the session if all refactorings have been written
+			sessionWriter.endSession();
+		} catch (IOException exception) {
+			throw new CoreException(new Status(IStatus.ERROR, RefactoringCorePlugin.getPluginId(), IRefactoringCoreStatusCodes.REFACTORING_HISTORY_IO_ERROR, exception.getLocalizedMessage(), exception));
 		}
-		final Document result= transformer.getResult();
-		writeNode(stream, result);
-			}
+	}
 
 	private static void writeNode(final OutputStream stream, Document document) {
 		OutputStreamWriter outputStreamWriter= new OutputStreamWriter(stream, Charset.forName("UTF-8")); //$NON-NLS-1$
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2008 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -65,7 +65,7 @@ abstract class AbstractResourceUndoState extends ResourceUndoState {
 				localTimeStamp= resource.getLocalTimeStamp();
 			}
 			try {
-				IMarker[] markers= resource.findMarkers(null, true, IResource.DEPTH_INFINITE);
+				IMarker[] markers= resource.findMarkers(null, true, getMarkerDepth());
 				markerDescriptions= new MarkerUndoState[markers.length];
 				for (int i= 0; i < markers.length; i++) {
 					markerDescriptions[i]= new MarkerUndoState(markers[i]);
@@ -80,6 +80,36 @@ abstract class AbstractResourceUndoState extends ResourceUndoState {
 	}
 
 
+	/**
+	 * Records the given markers in addition to the markers of the described resource. They are
+	 * restored together with the markers of the described resource, if their resource exists.
+	 *
+	 * @param markers the markers to record
+	 * @throws CoreException if accessing the markers fails
+	 */
+	protected void addMarkers(IMarker[] markers) throws CoreException {
+		if (markers.length == 0)
+			return;
+		int offset= markerDescriptions != null ? markerDescriptions.length : 0;
+		MarkerUndoState[] descriptions= new MarkerUndoState[offset + markers.length];
+		if (markerDescriptions != null)
+			System.arraycopy(markerDescriptions, 0, descriptions, 0, offset);
+		for (int i= 0; i < markers.length; i++) {
+			descriptions[offset + i]= new MarkerUndoState(markers[i]);
+		}
+		markerDescriptions= descriptions;
+	}
+
+	/**
+	 * Returns the depth up to which markers are recorded for the described resource. Called from
+	 * the constructor, so implementations must not depend on the state of the receiver.
+	 *
+	 * @return the marker depth, one of the <code>IResource.DEPTH_*</code> constants
+	 */
+	protected int getMarkerDepth() {
+		return IResource.DEPTH_INFINITE;
+	}
+
 	@Override
 	public IResource createResource(IProgressMonitor monitor) throws CoreException {
 		IResource resource= createResourceHandle();
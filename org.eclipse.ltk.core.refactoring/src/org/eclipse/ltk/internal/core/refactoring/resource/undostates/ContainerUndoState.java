@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2008 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -140,6 +140,9 @@ public abstract class ContainerUndoState extends AbstractResourceUndoState {
 					// Otherwise avoid wasting time. See http://bugs.eclipse.org/508260
 					if (localTimeStamp != IResource.NULL_STAMP || resourceMember.isLinked()) {
 						members.add((AbstractResourceUndoState) ResourceUndoState.fromResource(resourceMember));
+					} else {
+						// The member does not record its markers, so record them here.
+						addMarkers(resourceMember.findMarkers(null, true, IResource.DEPTH_INFINITE));
 					}
 				}
 			}
@@ -151,6 +154,16 @@ public abstract class ContainerUndoState extends AbstractResourceUndoState {
 		}
 	}
 
+	/*
+	 * The recorded members record their own markers. Recording the markers of the whole subtree
+	 * here as well kept a copy per ancestor in memory and restored them more than once on undo.
+	 * The markers of members that are not recorded are added by the constructor.
+	 */
+	@Override
+	protected int getMarkerDepth() {
+		return IResource.DEPTH_ZERO;
+	}
+
 	/**
 	 * Create any child resources known by this container description.
 	 *